@@ -0,0 +1,147 @@
+package com.unhuman.dataBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unhuman.dataBuilder.template.CompiledTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Settings/config files, generation plans and token replacement templates, kept for the jobs of a long running
+ * process (ie: the server).  Files are keyed by their canonical path, and an entry is replaced when its file's
+ * size or modification time changes, so edited files are reloaded.  Each cache holds the most recently used
+ * MAX_ENTRIES entries.  Settings are parsed for every job, since descriptors hold per-record state; plans and
+ * templates are immutable, so they're shared.
+ */
+class ConfigCache {
+    static final int MAX_ENTRIES = 64;
+
+    private final Cache<byte[]> settings = new Cache<>();
+    private final Cache<GenerationPlan> plans = new Cache<>();
+    private final Cache<CompiledTemplate> templates = new Cache<>();
+
+    /**
+     * @param settingsFile settings/config file
+     * @param objectMapper mapper for the settings
+     * @return new copy of the settings
+     */
+    SettingsConfig readSettings(File settingsFile, ObjectMapper objectMapper) throws IOException {
+        try {
+            byte[] content = settings.get(settingsFile, null, () -> {
+                try {
+                    return Files.readAllBytes(settingsFile.toPath());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return objectMapper.readValue(content, SettingsConfig.class);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @param settingsFile settings/config file the settings were read from
+     * @param settingsConfig settings (with any seed override applied)
+     * @return plan for the settings
+     */
+    GenerationPlan compile(File settingsFile, SettingsConfig settingsConfig) {
+        return plans.get(settingsFile, settingsConfig.getSeed(), () -> GenerationPlan.compile(settingsConfig));
+    }
+
+    /**
+     * @param templateFile token replacement template (data input file)
+     * @param plan plan the template is rendered with
+     * @return compiled template
+     */
+    CompiledTemplate compileTemplate(File templateFile, GenerationPlan plan) throws IOException {
+        try {
+            return templates.get(templateFile, plan, () -> {
+                try {
+                    return CompiledTemplate.compile(Files.readString(templateFile.toPath()), plan);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return number of entries held (settings, plans and templates)
+     */
+    int size() {
+        return settings.size() + plans.size() + templates.size();
+    }
+
+    /**
+     * Least recently used entries, each valid while its file's size and modification time are unchanged
+     */
+    private static class Cache<T> {
+        private final Map<List<Object>, CachedValue<T>> entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedValue<T>> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+
+        /**
+         * @param file file the value is loaded from
+         * @param variant anything else the value depends on (null for nothing)
+         * @param loader loads the value (outside of the lock, so jobs don't wait on each other's files)
+         * @return cached or loaded value
+         */
+        T get(File file, Object variant, Supplier<T> loader) {
+            File canonicalFile = canonicalFile(file);
+            List<Object> key = Arrays.asList(canonicalFile.getPath(), variant);
+            long length = canonicalFile.length();
+            long lastModified = canonicalFile.lastModified();
+            synchronized (entries) {
+                CachedValue<T> entry = entries.get(key);
+                if (entry != null && entry.length == length && entry.lastModified == lastModified) {
+                    return entry.value;
+                }
+            }
+            T value = loader.get();
+            synchronized (entries) {
+                // replaces any stale entry for the file
+                entries.put(key, new CachedValue<>(length, lastModified, value));
+            }
+            return value;
+        }
+
+        int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+
+        private static File canonicalFile(File file) {
+            try {
+                return file.getCanonicalFile();
+            } catch (IOException e) {
+                return file.getAbsoluteFile();
+            }
+        }
+    }
+
+    private static class CachedValue<T> {
+        private final long length;
+        private final long lastModified;
+        private final T value;
+
+        private CachedValue(long length, long lastModified, T value) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+    }
+}
@@ -2,9 +2,9 @@ package com.unhuman.dataBuilder;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.NamedType;
-import com.unhuman.dataBuilder.descriptor.AbstractCohesiveDataDescriptor;
 import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
 import com.unhuman.dataBuilder.descriptor.BooleanDescriptor;
+import com.unhuman.dataBuilder.descriptor.DictionaryDescriptor;
 import com.unhuman.dataBuilder.descriptor.EmailDescriptor;
 import com.unhuman.dataBuilder.descriptor.EmptyDescriptor;
 import com.unhuman.dataBuilder.descriptor.EnumValuesDescriptor;
@@ -13,59 +13,119 @@ import com.unhuman.dataBuilder.descriptor.FirstNameDescriptor;
 import com.unhuman.dataBuilder.descriptor.IdDescriptor;
 import com.unhuman.dataBuilder.descriptor.IntegerDescriptor;
 import com.unhuman.dataBuilder.descriptor.LastNameDescriptor;
+import com.unhuman.dataBuilder.descriptor.NumberDescriptor;
+import com.unhuman.dataBuilder.descriptor.RecordContext;
 import com.unhuman.dataBuilder.descriptor.StaticValueDescriptor;
 import com.unhuman.dataBuilder.descriptor.TextContentDescriptor;
+import com.unhuman.dataBuilder.input.DelimitedRecordSource;
+import com.unhuman.dataBuilder.input.FixedWidthRecordSource;
+import com.unhuman.dataBuilder.input.InputMatcher;
+import com.unhuman.dataBuilder.input.JsonRecord;
+import com.unhuman.dataBuilder.input.JsonRecordSource;
+import com.unhuman.dataBuilder.input.MappedCharSequence;
 import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.input.RecordSource;
+import com.unhuman.dataBuilder.input.SyntheticRecordSource;
+import com.unhuman.dataBuilder.output.BufferedValueSink;
+import com.unhuman.dataBuilder.output.CsvValueSink;
+import com.unhuman.dataBuilder.output.JsonValueSink;
+import com.unhuman.dataBuilder.output.OutputBuffer;
+import com.unhuman.dataBuilder.template.CompiledTemplate;
 import picocli.CommandLine;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.function.Function;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static com.unhuman.dataBuilder.input.PromptHelper.error;
 import static com.unhuman.dataBuilder.input.PromptHelper.output;
 import static java.lang.System.exit;
 
 public class DataBuilder {
-    private static final int SUCCESS = 0;
-    private static final int CONFIG_ERROR = -1;
+    static final int SUCCESS = 0;
+    static final int CONFIG_ERROR = -1;
     private static final int FILE_ERROR = -2;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL_SECONDS = 10;
 
     // When updating this list, you need to also update promptSettingsConfig() and getInheritanceObjectMapper()
     private enum ContentTypes { ID, BOOLEAN, INTEGER,
-        EMAIL, EMPTY_STRING, ENUM_VALUES, FILE_CONTENT, FIRST_NAME, LAST_NAME, STATIC_VALUE, TEXT }
-    private enum SerializationTypes { CSV, JSON, TOKEN_REPLACEMENT}
+        DICTIONARY, EMAIL, EMPTY_STRING, ENUM_VALUES, FILE_CONTENT, FIRST_NAME, LAST_NAME, NUMBER, STATIC_VALUE, TEXT }
+    private enum SerializationTypes { CSV, JSON, JSON_LINES, TOKEN_REPLACEMENT}
 
     private enum InputFileType { EXTRACTION, TOKEN_BASED }
-    // $[name] tokens to treat inputfile as replacements
-    private static final Pattern TOKEN_PATTERN = Pattern.compile("\\$\\[(.*?)\\]");
 
-    protected int process(CommandParams commandParams) {
-        String inputContent = null;
-        try {
-            inputContent = Files.readString(commandParams.getDataInputFile().toPath());
-        } catch (Exception e) {
-            error("Problem reading in data file: %s: %s\n", inputContent, e.getMessage());
-            return FILE_ERROR;
-        }
+    private enum ExtractionTypes { REGEX, DELIMITED, FIXED_WIDTH, JSON }
+
+    // settings, plans and templates kept across jobs (null when each run is a new process)
+    private final ConfigCache configCache;
+    private volatile ObjectMapper inheritanceObjectMapper;
+
+    public DataBuilder() {
+        this(null);
+    }
+
+    /**
+     * @param configCache cache for settings, plans and templates across runs (null for none)
+     */
+    DataBuilder(ConfigCache configCache) {
+        this.configCache = configCache;
+    }
 
+    protected int process(CommandParams commandParams) {
         SettingsConfig settingsConfig;
         if (commandParams.getSettingsConfigInputFile() != null) {
             try {
-                settingsConfig = getInheritanceObjectMapper()
-                        .readValue(commandParams.getSettingsConfigInputFile(), SettingsConfig.class);
+                settingsConfig = (configCache != null)
+                        ? configCache.readSettings(commandParams.getSettingsConfigInputFile(), getInheritanceObjectMapper())
+                        : getInheritanceObjectMapper()
+                                .readValue(commandParams.getSettingsConfigInputFile(), SettingsConfig.class);
             } catch (Exception e) {
                 error("Problem reading in settings/config file: %s: %s\n",
                         commandParams.getSettingsConfigInputFile().getPath(), e.getMessage());
                 return FILE_ERROR;
             }
         } else {
-            settingsConfig = promptSettingsConfig(inputContent);
+            try {
+                settingsConfig = promptSettingsConfig(commandParams.getDataInputFile(), commandParams.isMemoryMapped());
+            } catch (IllegalStateException e) {
+                // no answer for a prompt
+                error("%s\n", e.getMessage());
+                return CONFIG_ERROR;
+            } catch (Exception e) {
+                error("Problem reading in data file: %s: %s\n",
+                        commandParams.getDataInputFile().getPath(), e.getMessage());
+                return FILE_ERROR;
+            }
+        }
+
+        if (commandParams.getSeed() != null) {
+            settingsConfig.setSeed(commandParams.getSeed());
+        }
+        if (commandParams.getWorkingDirectory() != null) {
+            // file names in the settings are relative to the job's directory, like the ones on its command line
+            settingsConfig.getSettings().forEach(
+                    descriptor -> descriptor.resolveFiles(commandParams.getWorkingDirectory()));
+        }
+
+        if (commandParams.getRecords() != null) {
+            if (settingsConfig.isTokenBased()) {
+                error("Token replacement requires a data input file and can't be used with --records\n");
+                return CONFIG_ERROR;
+            }
+            if (settingsConfig.getSettings().stream().anyMatch(item -> item instanceof FileContentDescriptor)) {
+                error("File content fields require a data input file and can't be used with --records\n");
+                return CONFIG_ERROR;
+            }
         }
 
         SerializationTypes serializationType;
@@ -78,35 +138,74 @@ public class DataBuilder {
                 serializationType = SerializationTypes.CSV;
             } else if (commandParams.getDataOutputFile().toString().endsWith(".json")) {
                 serializationType = SerializationTypes.JSON;
+            } else if (commandParams.getDataOutputFile().toString().endsWith(".jsonl")
+                    || commandParams.getDataOutputFile().toString().endsWith(".ndjson")) {
+                serializationType = SerializationTypes.JSON_LINES;
             } else {
                 serializationType = SerializationTypes.valueOf(PromptHelper.promptForEnumValue(
                         "serialization desired", PromptHelper.StartingIndex.ONE, SerializationTypes.values()));
             }
         }
 
-        String serializedContent;
-        switch (serializationType) {
-            case CSV:
-                serializedContent = serializeCsv(inputContent, settingsConfig);
-                break;
-            case JSON:
-                boolean serializeNullValues = PromptHelper.promptYesNo("Do you want to serialize null values?");
-                serializedContent = serializeJson(inputContent, settingsConfig, serializeNullValues);
-                break;
-            case TOKEN_REPLACEMENT:
-                serializedContent = serializeDirect(inputContent, settingsConfig);
-                break;
-            default:
-                throw new RuntimeException("Invalid serialization: " + serializationType);
+        if (settingsConfig.isJsonInput() && commandParams.getRecords() == null
+                && SerializationTypes.CSV.equals(serializationType)) {
+            error("JSON data input is mutated and can only be written as JSON or JSON Lines, not CSV\n");
+            return CONFIG_ERROR;
         }
 
+        boolean serializeNullValues = (SerializationTypes.JSON.equals(serializationType)
+                || SerializationTypes.JSON_LINES.equals(serializationType))
+                && ((commandParams.getSerializeNullValues() != null) ? commandParams.getSerializeNullValues()
+                        : PromptHelper.promptYesNo("Do you want to serialize null values?"));
+
+        GenerationPlan plan = (configCache != null && commandParams.getSettingsConfigInputFile() != null)
+                ? configCache.compile(commandParams.getSettingsConfigInputFile(), settingsConfig)
+                : GenerationPlan.compile(settingsConfig);
+        GenerationMetrics metrics = new GenerationMetrics(plan, commandParams.getMetricsFile() != null);
+        metrics.startProgress(PROGRESS_INTERVAL_SECONDS);
         int status = SUCCESS;
-        try {
-            Files.writeString(commandParams.getDataOutputFile().toPath(), serializedContent);
-            output("Data file %s successfully written\n", commandParams.getDataOutputFile().getPath());
+        // Records are streamed from the input to the output as they are generated, so neither is held in memory
+        try (RecordSource input = metrics.measure(openRecordSource(commandParams, settingsConfig, serializationType));
+             OutputStream output = metrics.measure(Files.newOutputStream(commandParams.getDataOutputFile().toPath()))) {
+            switch (serializationType) {
+                case CSV:
+                    serializeCsv(input, output, settingsConfig, plan, commandParams.getThreads(),
+                            commandParams.getEngine(), metrics);
+                    break;
+                case JSON:
+                    serializeJson(input, output, settingsConfig, plan, serializeNullValues,
+                            commandParams.getThreads(), commandParams.getEngine(), metrics);
+                    break;
+                case JSON_LINES:
+                    serializeJsonLines(input, output, settingsConfig, plan, serializeNullValues,
+                            commandParams.getThreads(), commandParams.getEngine(), metrics);
+                    break;
+                case TOKEN_REPLACEMENT:
+                    serializeDirect(commandParams.getDataInputFile(), commandParams.isMemoryMapped(), output,
+                            settingsConfig, plan, metrics);
+                    break;
+                default:
+                    throw new RuntimeException("Invalid serialization: " + serializationType);
+            }
         } catch (Exception e) {
             error("Problem writing data file %s: %s\n", commandParams.getDataOutputFile().getPath(), e.getMessage());
             status = FILE_ERROR;
+        } finally {
+            metrics.stop();
+        }
+        if (status == SUCCESS) {
+            output("Data file %s successfully written\n", commandParams.getDataOutputFile().getPath());
+        }
+
+        if (commandParams.getMetricsFile() != null) {
+            try {
+                metrics.write(commandParams.getMetricsFile());
+                output("Metrics file %s successfully written\n", commandParams.getMetricsFile().getPath());
+            } catch (Exception e) {
+                error("Problem writing metrics file: %s: %s\n", commandParams.getMetricsFile().getPath(),
+                        e.getMessage());
+                status = FILE_ERROR;
+            }
         }
 
         if (commandParams.getSettingsConfigOutputFile() != null) {
@@ -126,7 +225,51 @@ public class DataBuilder {
         return status;
     }
 
-    private SettingsConfig promptSettingsConfig(String inputContent) {
+    private RecordSource openRecordSource(CommandParams commandParams, SettingsConfig settingsConfig,
+                                          SerializationTypes serializationType) throws IOException {
+        if (commandParams.getRecords() != null) {
+            return new SyntheticRecordSource(commandParams.getRecords());
+        }
+
+        if (SerializationTypes.TOKEN_REPLACEMENT.equals(serializationType)) {
+            // templates are compiled whole rather than matched as records
+            return null;
+        }
+        return openDataInput(settingsConfig, commandParams.getDataInputFile(), commandParams.isMemoryMapped());
+    }
+
+    /**
+     * Open a data input file for extraction
+     * @param settingsConfig settings with the regex, delimiter or field widths to extract records with
+     * @param dataInputFile data input file
+     * @param memoryMapped true to memory map the file, false to stream it
+     * @return records of the file
+     */
+    static RecordSource openDataInput(SettingsConfig settingsConfig, File dataInputFile, boolean memoryMapped)
+            throws IOException {
+        if (settingsConfig.isJsonInput()) {
+            return JsonRecordSource.open(dataInputFile);
+        }
+        // Delimited and fixed-width input are split directly, which is much faster than regex matching
+        if (settingsConfig.getDelimiter() != null) {
+            return DelimitedRecordSource.open(dataInputFile, settingsConfig.getDelimiter(),
+                    settingsConfig.getHeaderLines(), memoryMapped);
+        }
+        if (settingsConfig.getFieldWidths() != null) {
+            return FixedWidthRecordSource.open(dataInputFile, settingsConfig.getFieldWidths(),
+                    settingsConfig.getHeaderLines(), memoryMapped);
+        }
+        return InputMatcher.open(dataInputFile, Pattern.compile(settingsConfig.getRegex()), memoryMapped)
+                .withNamedGroups(settingsConfig.getGroupNames());
+    }
+
+    /**
+     * Prompt for settings
+     * @param inputFile data input file (null when records are generated without input)
+     * @param memoryMapped true to memory map the data input file
+     * @return settings
+     */
+    private SettingsConfig promptSettingsConfig(File inputFile, boolean memoryMapped) throws IOException {
         SettingsConfig settingsConfig = new SettingsConfig();
 
         List<Enum> availableContentTypes = new ArrayList<>();
@@ -137,32 +280,58 @@ public class DataBuilder {
         // behave differently if the inputContent is an existing file with replacements
         // versus content to be extracted.
 
-        Matcher tokenPatternMatcher = TOKEN_PATTERN.matcher(inputContent);
         LinkedHashSet<String> tokenNames = null;
-        if (tokenPatternMatcher.find()) {
-            // We don't allow FILE_CONTENT data because we're already in the file
+        if (inputFile == null) {
+            // Without input, there's no content to draw from or replace
             availableContentTypes.remove(ContentTypes.FILE_CONTENT);
-            tokenNames = new LinkedHashSet<>();
-            do {
-                tokenNames.add(tokenPatternMatcher.group(1));
-            } while (tokenPatternMatcher.find());
-            settingsConfig.setReplacementTokens(tokenNames);
         } else {
-            String matchRegex = null;
-            while (true) {
-                try {
-                    matchRegex = PromptHelper.promptForValue("matching regex");
-                    Pattern pattern = Pattern.compile(matchRegex);
-                    Matcher matcher = pattern.matcher(inputContent);
-                    if (matcher.find()) {
-                        break;
-                    }
-                    error("No matches for regex: %s in file\n", matchRegex);
-                } catch (Exception e) {
-                    error("Invalid regex: %s in file: %s\n", matchRegex, e.getMessage());
+            try (InputMatcher tokenPatternMatcher =
+                         InputMatcher.open(inputFile, CompiledTemplate.TOKEN_PATTERN, memoryMapped)) {
+                if (tokenPatternMatcher.find()) {
+                    tokenNames = new LinkedHashSet<>();
+                    do {
+                        String tokenName = tokenPatternMatcher.match().group(1);
+                        if (!CompiledTemplate.isDirective(tokenName)) {
+                            tokenNames.add(tokenName);
+                        }
+                    } while (tokenPatternMatcher.find());
                 }
             }
-            settingsConfig.setRegex(matchRegex);
+        }
+
+        if (tokenNames != null) {
+            // We don't allow FILE_CONTENT data because we're already in the file
+            availableContentTypes.remove(ContentTypes.FILE_CONTENT);
+            settingsConfig.setReplacementTokens(tokenNames);
+        } else if (inputFile != null) {
+            ExtractionTypes extractionType = ExtractionTypes.valueOf(PromptHelper.promptForEnumValue(
+                    "data extraction", PromptHelper.StartingIndex.ONE, ExtractionTypes.values()));
+            switch (extractionType) {
+                case REGEX:
+                    settingsConfig.setRegex(promptRegex(inputFile, memoryMapped));
+                    break;
+                case DELIMITED:
+                    String delimiter = PromptHelper.promptFilteredValue(
+                            "delimiter (single character, \\t for tab)", "^(.|\\\\t)$", ",");
+                    settingsConfig.setDelimiter(delimiter.equals("\\t") ? '\t' : delimiter.charAt(0));
+                    settingsConfig.setHeaderLines(PromptHelper.promptIntegerValue("header lines to skip", 0));
+                    break;
+                case FIXED_WIDTH:
+                    String widths = PromptHelper.promptFilteredValue("field widths (comma separated)",
+                            "^\\d+(\\s*,\\s*\\d+)*$");
+                    settingsConfig.setFieldWidths(Arrays.stream(widths.split(","))
+                            .mapToInt(width -> Integer.parseInt(width.trim())).toArray());
+                    settingsConfig.setHeaderLines(PromptHelper.promptIntegerValue("header lines to skip", 0));
+                    break;
+                case JSON:
+                    // existing fields are kept, so fields are only configured to replace or add them
+                    settingsConfig.setJsonInput(true);
+                    availableContentTypes.remove(ContentTypes.FILE_CONTENT);
+                    break;
+                default:
+                    // not expected
+                    throw new RuntimeException("Invalid extraction: " + extractionType);
+            }
         }
 
         int currentTokenName = 0;
@@ -210,6 +379,9 @@ public class DataBuilder {
                 case INTEGER:
                     descriptor = new IntegerDescriptor(name);
                     break;
+                case DICTIONARY:
+                    descriptor = new DictionaryDescriptor(name);
+                    break;
                 case EMAIL:
                     descriptor = new EmailDescriptor(name);
                     break;
@@ -228,6 +400,9 @@ public class DataBuilder {
                 case LAST_NAME:
                     descriptor = new LastNameDescriptor(name);
                     break;
+                case NUMBER:
+                    descriptor = new NumberDescriptor(name);
+                    break;
                 case STATIC_VALUE:
                     descriptor = new StaticValueDescriptor(name);
                     break;
@@ -245,100 +420,188 @@ public class DataBuilder {
         return settingsConfig;
     }
 
-    private String serializeJson(String inputContent, SettingsConfig settingsConfig,
-                                 boolean serializeNullValues) {
-        StringBuilder builder = new StringBuilder(2048);
-        Pattern pattern = Pattern.compile(settingsConfig.getRegex());
-        Matcher matcher = pattern.matcher(inputContent);
-        builder.append("[");
-        boolean firstMatch = true;
-        while (matcher.find()) {
-            // We know this is a new record - so reset common state
-            AbstractCohesiveDataDescriptor.reset();
-
-            if (!firstMatch) {
-                builder.append(",");
-            }
-            firstMatch = false;
-            builder.append("\n{");
+    void serializeJson(RecordSource source, OutputStream output, SettingsConfig settingsConfig,
+                       GenerationPlan plan, boolean serializeNullValues, int threads,
+                       FieldWriters.Engine engine, GenerationMetrics metrics) throws IOException {
+        output.write('[');
+        Function<OutputBuffer, JsonValueSink> sinkFactory = buffer -> new JsonValueSink(buffer, serializeNullValues);
+        FieldWriter<JsonValueSink> fieldWriter = FieldWriters.json(plan, engine, metrics);
+        serializeRecords(source, output, settingsConfig, plan, threads, metrics, sinkFactory,
+                (descriptors, context, sink) -> {
+                    sink.getOutput().writeChars((context.getRecordNumber() > 0) ? ",\n" : "\n");
+                    serializeJsonObject(plan, fieldWriter, descriptors, context, sink);
+                });
+        output.write(new byte[] { '\n', ']' });
+    }
+
+    void serializeJsonLines(RecordSource source, OutputStream output, SettingsConfig settingsConfig,
+                            GenerationPlan plan, boolean serializeNullValues, int threads,
+                            FieldWriters.Engine engine, GenerationMetrics metrics) throws IOException {
+        Function<OutputBuffer, JsonValueSink> sinkFactory = buffer -> new JsonValueSink(buffer, serializeNullValues);
+        FieldWriter<JsonValueSink> fieldWriter = FieldWriters.json(plan, engine, metrics);
+        serializeRecords(source, output, settingsConfig, plan, threads, metrics, sinkFactory,
+                (descriptors, context, sink) -> {
+                    serializeJsonObject(plan, fieldWriter, descriptors, context, sink);
+                    sink.getOutput().write('\n');
+                });
+    }
 
+    private void serializeJsonObject(GenerationPlan plan, FieldWriter<JsonValueSink> fieldWriter,
+                                     AbstractEntityTypeDescriptor[] descriptors, RecordContext context,
+                                     JsonValueSink sink) {
+        sink.startObject();
+        if (context.getMatch() instanceof JsonRecord) {
+            // mutating JSON input - generated fields replace the input's fields in place (new ones are added last)
+            sink.captureFields();
+            fieldWriter.writeFields(descriptors, context, sink);
+            sink.copyFields(((JsonRecord) context.getMatch()).createParser(),
+                    name -> plan.getSlot(name) != GenerationPlan.NO_SLOT);
+        } else {
             // process all the descriptors
-            boolean firstDescriptor = true;
-            for (AbstractEntityTypeDescriptor descriptor: settingsConfig.getSettings()) {
-                descriptor.setIterationState(matcher);
-                String value = descriptor.getNextValue(AbstractEntityTypeDescriptor.NullHandler.AS_NULL);
-                if (value != null || serializeNullValues) {
-                    if (!firstDescriptor) {
-                        builder.append(",");
-                    }
-                    firstDescriptor = false;
-                    builder.append('"').append(descriptor.getName()).append('"').append(":");
-                    builder.append(value);
-                }
-            }
-            builder.append("}");
+            fieldWriter.writeFields(descriptors, context, sink);
         }
-        builder.append("\n]");
-        return builder.toString();
+        sink.endObject();
     }
 
-    private String serializeCsv(String inputContent, SettingsConfig settingsConfig) {
-        StringBuilder builder = new StringBuilder(2048);
-        Pattern pattern = Pattern.compile(settingsConfig.getRegex());
-        Matcher matcher = pattern.matcher(inputContent);
-
+    void serializeCsv(RecordSource source, OutputStream output, SettingsConfig settingsConfig,
+                      GenerationPlan plan, int threads, FieldWriters.Engine engine, GenerationMetrics metrics)
+            throws IOException {
         // serialize out the heading
-        builder.append(settingsConfig.getSettings().stream().map(item ->
-                item.getName()).collect(Collectors.joining(",")));
+        plan.writeCsvHeader(output);
+
+        FieldWriter<CsvValueSink> fieldWriter = FieldWriters.csv(plan, engine, metrics);
+        serializeRecords(source, output, settingsConfig, plan, threads, metrics, CsvValueSink::new,
+                (descriptors, context, sink) -> {
+                    sink.getOutput().write('\n');
+                    fieldWriter.writeFields(descriptors, context, sink);
+                });
+    }
 
-        while (matcher.find()) {
-            // We know this is a new record - so reset common state
-            AbstractCohesiveDataDescriptor.reset();
+    private <S extends BufferedValueSink> void serializeRecords(RecordSource source, OutputStream output,
+                                                                SettingsConfig settingsConfig, GenerationPlan plan,
+                                                                int threads, GenerationMetrics metrics,
+                                                                Function<OutputBuffer, S> sinkFactory,
+                                                                ParallelRecordWriter.RecordRenderer<S> renderer)
+            throws IOException {
+        ParallelRecordWriter.RecordRenderer<S> measuredRenderer = metrics.measure(renderer);
+        if (threads > 1) {
+            // Each worker gets its own copy of the descriptors, since they hold per-record state
+            ObjectMapper objectMapper = getInheritanceObjectMapper();
+            byte[] serializedSettings = objectMapper.writeValueAsBytes(settingsConfig);
+            new ParallelRecordWriter<>(threads, plan, () -> {
+                try {
+                    return objectMapper.readValue(serializedSettings, SettingsConfig.class);
+                } catch (IOException e) {
+                    throw new RuntimeException("Problem copying settings/config: " + e.getMessage(), e);
+                }
+            }, sinkFactory).write(source, output, measuredRenderer);
+            return;
+        }
 
-            builder.append("\n");
-            builder.append(settingsConfig.getSettings().stream().map(item ->
-                    item.setIterationState(matcher)
-                            .getNextValue(AbstractEntityTypeDescriptor.NullHandler.EMPTY))
-                    .collect(Collectors.joining(",")));
+        AbstractEntityTypeDescriptor[] descriptors = plan.bind(settingsConfig);
+        S sink = sinkFactory.apply(new OutputBuffer(OUTPUT_BUFFER_SIZE + 8192));
+        RecordContext context = new RecordContext(plan.getSeed());
+        long recordNumber = 0;
+        while (source.find()) {
+            measuredRenderer.render(descriptors, context.startRecord(source.match(), recordNumber++), sink);
+            if (sink.getOutput().size() >= OUTPUT_BUFFER_SIZE) {
+                sink.getOutput().drainTo(output);
+            }
         }
-        return builder.toString();
+        sink.getOutput().drainTo(output);
     }
 
-    private String serializeDirect(String inputContent, SettingsConfig settingsConfig) {
-        StringBuilder builder = new StringBuilder(2048);
-
-        Matcher tokenMatcher = TOKEN_PATTERN.matcher(inputContent);
-        while (tokenMatcher.find()) {
-            // TODO: Currently no concept of a new record, so we can't reset AbstractCohesiveDataDescriptor.reset();
-            // Possible fix determine if this is a CSV or JSON and go from there...
+    void serializeDirect(File templateFile, boolean memoryMapped, OutputStream output,
+                         SettingsConfig settingsConfig, GenerationPlan plan, GenerationMetrics metrics)
+            throws IOException {
+        // The template is compiled once (and kept, with a cache), then rendered straight to the output
+        CompiledTemplate compiledTemplate;
+        if (configCache != null && !memoryMapped) {
+            compiledTemplate = configCache.compileTemplate(templateFile, plan);
+        } else {
+            CharSequence template = memoryMapped
+                    ? MappedCharSequence.map(templateFile.toPath()) : Files.readString(templateFile.toPath());
+            compiledTemplate = CompiledTemplate.compile(template, plan);
+        }
+        compiledTemplate.render(output, plan.bind(settingsConfig), plan.getSeed(), metrics);
+    }
 
-            String tokenName = tokenMatcher.group(1);
-            String value = settingsConfig.getSetting(tokenName).getNextValue(AbstractEntityTypeDescriptor.NullHandler.AS_NULL);
-            tokenMatcher.appendReplacement(builder, value);
+    private String promptRegex(File inputFile, boolean memoryMapped) {
+        while (true) {
+            String matchRegex = PromptHelper.promptForValue("matching regex");
+            try (InputMatcher matcher = InputMatcher.open(inputFile, Pattern.compile(matchRegex), memoryMapped)) {
+                if (matcher.find()) {
+                    return matchRegex;
+                }
+                error("No matches for regex: %s in file\n", matchRegex);
+            } catch (Exception e) {
+                error("Invalid regex: %s in file: %s\n", matchRegex, e.getMessage());
+            }
         }
-        tokenMatcher.appendTail(builder);
-        return builder.toString();
     }
 
     public static void main(String[] args) {
+        DataBuilder dataBuilder = new DataBuilder();
+        exit(dataBuilder.execute(args, null));
+    }
+
+    /**
+     * Run a command line
+     * @param args command line arguments
+     * @param workingDirectory directory relative file names are in (null for the current directory)
+     * @return exit status
+     */
+    int execute(String[] args, File workingDirectory) {
         CommandParams commandParams = new CommandParams();
         CommandLine commandLine = new CommandLine(commandParams);
+        if (workingDirectory != null) {
+            commandLine.registerConverter(File.class,
+                    path -> new File(path).isAbsolute() ? new File(path) : new File(workingDirectory, path));
+        }
+        commandLine.setOut(new PrintWriter(PromptHelper.getOutput(), true));
+        commandLine.setErr(new PrintWriter(PromptHelper.getError(), true));
         int response = commandLine.execute(args);
         if (response != 0) {
-            commandLine.usage(System.out);
-            exit(response);
+            commandLine.usage(PromptHelper.getOutput());
+            return response;
         }
 
-        DataBuilder dataBuilder = new DataBuilder();
-        exit(dataBuilder.process(commandParams));
+        commandParams.setWorkingDirectory(workingDirectory);
+        if (commandParams.getAnswersFile() == null) {
+            return process(commandParams);
+        }
+        try (BufferedReader answers = Files.newBufferedReader(commandParams.getAnswersFile().toPath())) {
+            PromptHelper.useAnswers(answers);
+            return process(commandParams);
+        } catch (IOException e) {
+            error("Problem reading answers file: %s: %s\n", commandParams.getAnswersFile().getPath(), e.getMessage());
+            return FILE_ERROR;
+        } catch (IllegalStateException e) {
+            // ran out of answers
+            error("%s\n", e.getMessage());
+            return CONFIG_ERROR;
+        } finally {
+            PromptHelper.clearAnswers();
+        }
     }
 
-    private ObjectMapper getInheritanceObjectMapper() {
+    /**
+     * @return mapper for settings/configs, with the descriptor types (shared - it's built once)
+     */
+    ObjectMapper getInheritanceObjectMapper() {
+        if (inheritanceObjectMapper == null) {
+            inheritanceObjectMapper = createInheritanceObjectMapper();
+        }
+        return inheritanceObjectMapper;
+    }
+
+    static ObjectMapper createInheritanceObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         // Enable polymorphism
         objectMapper.activateDefaultTyping(objectMapper.getPolymorphicTypeValidator());
         // Register types of polymorphism
         objectMapper.registerSubtypes(new NamedType(BooleanDescriptor.class, BooleanDescriptor.class.getSimpleName()));
+        objectMapper.registerSubtypes(new NamedType(DictionaryDescriptor.class, DictionaryDescriptor.class.getSimpleName()));
         objectMapper.registerSubtypes(new NamedType(EmailDescriptor.class, EmailDescriptor.class.getSimpleName()));
         objectMapper.registerSubtypes(new NamedType(EmptyDescriptor.class, EmptyDescriptor.class.getSimpleName()));
         objectMapper.registerSubtypes(new NamedType(EnumValuesDescriptor.class, EnumValuesDescriptor.class.getSimpleName()));
@@ -347,6 +610,7 @@ public class DataBuilder {
         objectMapper.registerSubtypes(new NamedType(IdDescriptor.class, IdDescriptor.class.getSimpleName()));
         objectMapper.registerSubtypes(new NamedType(IntegerDescriptor.class, IntegerDescriptor.class.getSimpleName()));
         objectMapper.registerSubtypes(new NamedType(LastNameDescriptor.class, LastNameDescriptor.class.getSimpleName()));
+        objectMapper.registerSubtypes(new NamedType(NumberDescriptor.class, NumberDescriptor.class.getSimpleName()));
         objectMapper.registerSubtypes(new NamedType(StaticValueDescriptor.class, StaticValueDescriptor.class.getSimpleName()));
         objectMapper.registerSubtypes(new NamedType(TextContentDescriptor.class, TextContentDescriptor.class.getSimpleName()));
 
@@ -366,11 +630,44 @@ public class DataBuilder {
                 description = "settings/config output file (not the data output file)")
         private File settingsConfigOutputFile;
 
-        @CommandLine.Parameters(index = "0", paramLabel="DATA_INPUT_FILE")
-        private File dataInputFile;
+        @picocli.CommandLine.Option(names = {"-m", "--mapped"},
+                description = "memory map the (ASCII / UTF-8) data input file instead of streaming it")
+        private boolean memoryMapped = false;
+
+        @picocli.CommandLine.Option(names = {"-t", "--threads"}, paramLabel = "N",
+                description = "number of threads generating CSV / JSON records (default: 1)")
+        private int threads = 1;
+
+        @picocli.CommandLine.Option(names = {"-r", "--records"}, paramLabel = "N",
+                description = "generate N records without a data input file (only DATA_OUTPUT_FILE is specified)")
+        private Long records;
+
+        @picocli.CommandLine.Option(names = {"-s", "--seed"}, paramLabel = "SEED",
+                description = "seed for reproducible data (saved with the settings/config)")
+        private Long seed;
+
+        @picocli.CommandLine.Option(names = {"-e", "--engine"}, paramLabel = "ENGINE",
+                description = "record writer for CSV / JSON: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+        private FieldWriters.Engine engine = FieldWriters.Engine.INTERPRETED;
+
+        @picocli.CommandLine.Option(names = {"--serialize-nulls"}, negatable = true,
+                description = "serialize null values in JSON output (prompted for when not specified)")
+        private Boolean serializeNullValues;
+
+        @picocli.CommandLine.Option(names = {"-a", "--answers"}, paramLabel = "ANSWERS_FILE",
+                description = "answer prompts from a file (one answer per line, empty for the default) - no console")
+        private File answersFile;
+
+        @picocli.CommandLine.Option(names = {"--metrics"}, paramLabel = "METRICS_FILE",
+                description = "time matching, generation, each field and output, and write the metrics (JSON)")
+        private File metricsFile;
 
-        @CommandLine.Parameters(index = "1", paramLabel="DATA_OUTPUT_FILE")
-        private File dataOutputFile;
+        @CommandLine.Parameters(arity = "1..2", paramLabel = "DATA_FILE",
+                description = "DATA_INPUT_FILE DATA_OUTPUT_FILE (only DATA_OUTPUT_FILE with --records)")
+        private List<File> dataFiles;
+
+        // directory relative file names are in (null for the current directory)
+        private File workingDirectory;
 
         public File getSettingsConfigInputFile() {
             return settingsConfigInputFile;
@@ -380,12 +677,52 @@ public class DataBuilder {
             return settingsConfigOutputFile;
         }
 
+        public boolean isMemoryMapped() {
+            return memoryMapped;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public Long getRecords() {
+            return records;
+        }
+
+        public Long getSeed() {
+            return seed;
+        }
+
+        public FieldWriters.Engine getEngine() {
+            return engine;
+        }
+
+        public Boolean getSerializeNullValues() {
+            return serializeNullValues;
+        }
+
+        public File getAnswersFile() {
+            return answersFile;
+        }
+
+        public File getMetricsFile() {
+            return metricsFile;
+        }
+
         public File getDataInputFile() {
-            return dataInputFile;
+            return (records == null && dataFiles != null && dataFiles.size() > 1) ? dataFiles.get(0) : null;
         }
 
         public File getDataOutputFile() {
-            return dataOutputFile;
+            return (dataFiles != null) ? dataFiles.get(dataFiles.size() - 1) : null;
+        }
+
+        public File getWorkingDirectory() {
+            return workingDirectory;
+        }
+
+        public void setWorkingDirectory(File workingDirectory) {
+            this.workingDirectory = workingDirectory;
         }
 
         @Override
@@ -406,12 +743,35 @@ public class DataBuilder {
                 exitCode = CONFIG_ERROR;
             }
 
+            if (getMetricsFile() != null && getMetricsFile().exists()) {
+                error("Metrics file must not exist: %s\n", getMetricsFile().getPath());
+                exitCode = CONFIG_ERROR;
+            }
+
+            if (getAnswersFile() != null && !getAnswersFile().exists()) {
+                error("Answers file must exist: %s\n", getAnswersFile().getPath());
+                exitCode = CONFIG_ERROR;
+            }
+
+            if (getThreads() < 1) {
+                error("Threads must be at least 1: %d\n", getThreads());
+                exitCode = CONFIG_ERROR;
+            }
+
+            if (getRecords() != null && getRecords() < 0) {
+                error("Records must not be negative: %d\n", getRecords());
+                exitCode = CONFIG_ERROR;
+            }
+
             // Validate input / output files
-            if (getDataInputFile() == null || getDataInputFile() == null) {
+            if (getRecords() != null && (dataFiles == null || dataFiles.size() != 1)) {
+                error("Only the data output file may be specified with --records\n");
+                exitCode = CONFIG_ERROR;
+            } else if (getRecords() == null && (getDataInputFile() == null || getDataOutputFile() == null)) {
                 error("Data input and output files must be specified\n");
                 exitCode = CONFIG_ERROR;
             } else {
-                if (!getDataInputFile().exists()) {
+                if (getDataInputFile() != null && !getDataInputFile().exists()) {
                     error("Data input file must exist: %s\n", getDataInputFile().getPath());
                     exitCode = CONFIG_ERROR;
                 }
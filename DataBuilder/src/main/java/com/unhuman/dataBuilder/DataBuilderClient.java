@@ -0,0 +1,77 @@
+package com.unhuman.dataBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Thin client for DataBuilderServer - sends its command line (DataBuilder arguments) to the server, prints the
+ * job's output and exits with the job's status.  It deliberately only uses the JDK's HTTP client, so it starts quickly.
+ *
+ * Usage: DataBuilderClient [--port PORT] [--shutdown | DataBuilder arguments...]
+ * The port defaults to the DATABUILDER_PORT environment variable, then DataBuilderServer.DEFAULT_PORT.
+ * Requests carry the token the server wrote to ~/.databuilder/server-PORT.token.
+ */
+public class DataBuilderClient {
+    private static final int CONNECTION_ERROR = -3;
+
+    public static void main(String[] args) {
+        int port = (System.getenv("DATABUILDER_PORT") != null)
+                ? Integer.parseInt(System.getenv("DATABUILDER_PORT")) : DataBuilderServer.DEFAULT_PORT;
+        int firstArg = 0;
+        if (args.length >= 2 && (args[0].equals("--port") || args[0].equals("-p"))) {
+            port = Integer.parseInt(args[1]);
+            firstArg = 2;
+        }
+        boolean shutdown = args.length == firstArg + 1 && args[firstArg].equals("--shutdown");
+
+        StringBuilder commandLine = new StringBuilder();
+        for (int i = firstArg; i < args.length && !shutdown; i++) {
+            commandLine.append(args[i]).append('\n');
+        }
+
+        try {
+            System.exit(send(port, shutdown ? DataBuilderServer.SHUTDOWN_PATH : DataBuilderServer.GENERATE_PATH,
+                    commandLine.toString()));
+        } catch (ConnectException e) {
+            System.err.printf("DataBuilder server isn't running on port %d\n", port);
+        } catch (NoSuchFileException e) {
+            System.err.printf("DataBuilder server isn't running on port %d (no token file %s)\n", port, e.getFile());
+        } catch (IOException e) {
+            System.err.printf("Problem sending job to DataBuilder server: %s\n", e.getMessage());
+        }
+        System.exit(CONNECTION_ERROR);
+    }
+
+    private static int send(int port, String path, String commandLine) throws IOException {
+        Path tokenFile = Path.of(System.getProperty("user.home"), DataBuilderServer.TOKEN_DIRECTORY,
+                String.format(DataBuilderServer.TOKEN_FILE_FORMAT, port));
+        String token = Files.readString(tokenFile, StandardCharsets.US_ASCII).trim();
+
+        HttpURLConnection connection = (HttpURLConnection) new URL("http",
+                InetAddress.getLoopbackAddress().getHostAddress(), port, path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", DataBuilderServer.CONTENT_TYPE);
+        connection.setRequestProperty(DataBuilderServer.TOKEN_HEADER, token);
+        connection.setRequestProperty(DataBuilderServer.DIRECTORY_HEADER, System.getProperty("user.dir"));
+        connection.getOutputStream().write(commandLine.getBytes(StandardCharsets.UTF_8));
+
+        int httpStatus = connection.getResponseCode();
+        try (InputStream response = (httpStatus < 400) ? connection.getInputStream() : connection.getErrorStream()) {
+            if (response != null) {
+                response.transferTo(System.out);
+            }
+        }
+        System.out.flush();
+        String status = connection.getHeaderField(DataBuilderServer.STATUS_HEADER);
+        return (status != null) ? Integer.parseInt(status) : CONNECTION_ERROR;
+    }
+}
@@ -0,0 +1,250 @@
+package com.unhuman.dataBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.unhuman.dataBuilder.input.PromptHelper;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.unhuman.dataBuilder.input.PromptHelper.error;
+import static com.unhuman.dataBuilder.input.PromptHelper.output;
+
+/**
+ * Resident DataBuilder, running generation jobs sent over HTTP (on the loopback interface only), so each
+ * generation doesn't pay for JVM startup, class loading and building the settings mapper.  Settings/configs,
+ * generation plans and templates are cached across jobs.
+ *
+ * POST /generate - the body is a DataBuilder command line, one argument per line, and the DataBuilder-Directory
+ * header is the directory relative file names (on the command line and in the settings) are in.  The response is
+ * the job's output (and errors), with its exit status in the DataBuilder-Status header.  Jobs can't prompt, so
+ * they need a settings/config file (-i), and --serialize-nulls or --no-serialize-nulls for JSON output.
+ * POST /shutdown - stop the server
+ *
+ * Requests must have the server's token (written on startup to ~/.databuilder/server-PORT.token, readable only by
+ * the user) in the DataBuilder-Token header and the DataBuilder Content-Type, and no Origin header - so web pages
+ * (which can POST to localhost) can't run jobs.
+ *
+ * Jobs run concurrently, on a fixed pool of threads.
+ */
+public class DataBuilderServer {
+    public static final int DEFAULT_PORT = 7780;
+    static final String GENERATE_PATH = "/generate";
+    static final String SHUTDOWN_PATH = "/shutdown";
+    static final String DIRECTORY_HEADER = "DataBuilder-Directory";
+    static final String STATUS_HEADER = "DataBuilder-Status";
+    static final String TOKEN_HEADER = "DataBuilder-Token";
+    static final String CONTENT_TYPE = "application/x-databuilder-command-line";
+    static final String TOKEN_DIRECTORY = ".databuilder";
+    static final String TOKEN_FILE_FORMAT = "server-%d.token";
+
+    private final DataBuilder dataBuilder = new DataBuilder(new ConfigCache());
+    private final File tokenDirectory;
+    private final byte[] token;
+    private final ExecutorService executor;
+    private final HttpServer server;
+    private Path tokenFile;
+
+    /**
+     * @param port port to listen on (0 for any free port)
+     * @param threads number of jobs to run at once
+     */
+    public DataBuilderServer(int port, int threads) throws IOException {
+        this(port, threads, new File(System.getProperty("user.home"), TOKEN_DIRECTORY));
+    }
+
+    /**
+     * @param port port to listen on (0 for any free port)
+     * @param threads number of jobs to run at once
+     * @param tokenDirectory directory to write the token file to
+     */
+    DataBuilderServer(int port, int threads, File tokenDirectory) throws IOException {
+        this.tokenDirectory = tokenDirectory;
+        byte[] randomBytes = new byte[32];
+        new SecureRandom().nextBytes(randomBytes);
+        token = Base64.getUrlEncoder().withoutPadding().encode(randomBytes);
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext(GENERATE_PATH, this::generate);
+        server.createContext(SHUTDOWN_PATH, this::shutdown);
+    }
+
+    public void start() throws IOException {
+        // load the settings mapper before the first job
+        dataBuilder.getInheritanceObjectMapper();
+        tokenFile = writeTokenFile();
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            if (tokenFile != null) {
+                Files.deleteIfExists(tokenFile);
+            }
+        } catch (IOException e) {
+            error("Problem deleting token file %s: %s\n", tokenFile, e.getMessage());
+        }
+    }
+
+    /**
+     * @return file with the token clients must send
+     */
+    Path getTokenFile() {
+        return tokenFile;
+    }
+
+    private Path writeTokenFile() throws IOException {
+        Path directory = tokenDirectory.toPath();
+        Path file = directory.resolve(String.format(TOKEN_FILE_FORMAT, getPort()));
+        Files.createDirectories(directory);
+        // replaced (rather than rewritten) so the permissions are set before the token is written
+        Files.deleteIfExists(file);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            File created = Files.createFile(file).toFile();
+            created.setReadable(false, false);
+            created.setWritable(false, false);
+            created.setReadable(true, true);
+            created.setWritable(true, true);
+        }
+        Files.write(file, token);
+        return file;
+    }
+
+    /**
+     * Reject requests that aren't from a DataBuilder client (ie: from web pages)
+     * @return true if the request may run
+     */
+    private boolean authorize(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, null, "POST a command line, one argument per line\n");
+            return false;
+        }
+        if (exchange.getRequestHeaders().containsKey("Origin")) {
+            respond(exchange, 403, null, "Requests from web pages aren't allowed\n");
+            return false;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.split(";")[0].trim().equalsIgnoreCase(CONTENT_TYPE)) {
+            respond(exchange, 415, null, "Content-Type must be " + CONTENT_TYPE + "\n");
+            return false;
+        }
+        String requestToken = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        if (requestToken == null
+                || !MessageDigest.isEqual(token, requestToken.getBytes(StandardCharsets.US_ASCII))) {
+            respond(exchange, 401, null, "Missing or invalid " + TOKEN_HEADER + " (see " + tokenFile + ")\n");
+            return false;
+        }
+        return true;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void generate(HttpExchange exchange) throws IOException {
+        if (!authorize(exchange)) {
+            return;
+        }
+        String commandLine = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String[] args = commandLine.isEmpty() ? new String[0] : commandLine.split("\r?\n");
+        String directory = exchange.getRequestHeaders().getFirst(DIRECTORY_HEADER);
+
+        ByteArrayOutputStream transcript = new ByteArrayOutputStream();
+        PrintStream console = new PrintStream(transcript, true, StandardCharsets.UTF_8);
+        int status;
+        PromptHelper.redirectConsole(console, console);
+        try {
+            status = dataBuilder.execute(args, (directory != null) ? new File(directory) : null);
+        } catch (Exception e) {
+            error("Problem running job: %s\n", e.getMessage());
+            status = DataBuilder.CONFIG_ERROR;
+        } finally {
+            PromptHelper.resetConsole();
+        }
+        respond(exchange, 200, status, transcript.toString(StandardCharsets.UTF_8));
+    }
+
+    private void shutdown(HttpExchange exchange) throws IOException {
+        if (!authorize(exchange)) {
+            return;
+        }
+        respond(exchange, 200, DataBuilder.SUCCESS, "DataBuilder server stopping\n");
+        // stopping waits for exchanges (including this one) to finish
+        new Thread(this::stop).start();
+    }
+
+    private static void respond(HttpExchange exchange, int httpStatus, Integer status, String body)
+            throws IOException {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        if (status != null) {
+            exchange.getResponseHeaders().set(STATUS_HEADER, status.toString());
+        }
+        exchange.sendResponseHeaders(httpStatus, content.length);
+        try (OutputStream response = exchange.getResponseBody()) {
+            response.write(content);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        CommandParams commandParams = new CommandParams();
+        CommandLine commandLine = new CommandLine(commandParams);
+        int response = commandLine.execute(args);
+        if (response != 0 || commandParams.helpRequested) {
+            System.exit(response);
+        }
+
+        DataBuilderServer server = new DataBuilderServer(commandParams.port, commandParams.threads);
+        server.start();
+        output("DataBuilder server listening on port %d (%d threads)\n", server.getPort(), commandParams.threads);
+    }
+
+    private static class CommandParams implements Runnable, CommandLine.IExitCodeGenerator {
+        @CommandLine.Option(names = {"-h", "--help", "-?"}, usageHelp = true,
+                description = "display a help message")
+        private boolean helpRequested = false;
+
+        @CommandLine.Option(names = {"-p", "--port"}, paramLabel = "PORT",
+                description = "port to listen on (loopback only, default: ${DEFAULT-VALUE})")
+        private int port = DEFAULT_PORT;
+
+        @CommandLine.Option(names = {"-t", "--threads"}, paramLabel = "N",
+                description = "number of jobs to run at once (default: number of processors)")
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        @Override
+        public void run() {
+            // Nothing
+        }
+
+        @Override
+        public int getExitCode() {
+            if (threads < 1) {
+                error("Threads must be at least 1: %d\n", threads);
+                return DataBuilder.CONFIG_ERROR;
+            }
+            return 0;
+        }
+    }
+}
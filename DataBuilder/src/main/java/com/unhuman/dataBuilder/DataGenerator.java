@@ -0,0 +1,177 @@
+package com.unhuman.dataBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
+import com.unhuman.dataBuilder.descriptor.RecordContext;
+import com.unhuman.dataBuilder.input.JsonRecord;
+import com.unhuman.dataBuilder.input.RecordSource;
+import com.unhuman.dataBuilder.input.SyntheticRecordSource;
+import com.unhuman.dataBuilder.output.ObjectValueSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * In-process generation - records are generated lazily from settings, as maps of field name to value
+ * (null, Boolean, Long, BigDecimal or String) or as typed rows, without going through files.
+ *
+ *   DataGenerator generator = DataGenerator.load(new File("settings.json"));
+ *   generator.records(1_000_000).forEach(record -> ...);
+ *
+ * Records are only generated as they're consumed, so memory use doesn't depend on the number of records.
+ * Each stream / iterator has its own copy of the descriptors, so they're independent (and seeded settings generate
+ * the same values as the command line).  Streams are sequential; close them when reading a data input file.
+ */
+public class DataGenerator {
+    // for typed rows - field values are plain Java objects
+    private static final ObjectMapper ROW_MAPPER = new ObjectMapper();
+
+    private final ObjectMapper settingsMapper = DataBuilder.createInheritanceObjectMapper();
+    private final SettingsConfig settingsConfig;
+    private final byte[] serializedSettings;
+    private final GenerationPlan plan;
+
+    /**
+     * @param settingsConfig settings to generate records with (copied - later changes aren't seen)
+     */
+    public DataGenerator(SettingsConfig settingsConfig) {
+        if (settingsConfig.isTokenBased()) {
+            throw new IllegalArgumentException("Token replacement settings render templates rather than records");
+        }
+        this.settingsConfig = settingsConfig;
+        try {
+            this.serializedSettings = settingsMapper.writeValueAsBytes(settingsConfig);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Problem copying settings/config: " + e.getMessage(), e);
+        }
+        this.plan = GenerationPlan.compile(settingsConfig);
+    }
+
+    /**
+     * @param settingsFile settings/config file (as written by DataBuilder -o)
+     * @return generator for the settings
+     */
+    public static DataGenerator load(File settingsFile) throws IOException {
+        return new DataGenerator(DataBuilder.createInheritanceObjectMapper()
+                .readValue(settingsFile, SettingsConfig.class));
+    }
+
+    /**
+     * @param count number of records
+     * @return lazy stream of purely generated records
+     */
+    public Stream<Map<String, Object>> records(long count) {
+        return records(new SyntheticRecordSource(count));
+    }
+
+    /**
+     * @param count number of records
+     * @param type class to convert records to (ie: a bean with properties for the fields)
+     * @return lazy stream of purely generated records
+     */
+    public <T> Stream<T> records(long count, Class<T> type) {
+        return records(count).map(record -> ROW_MAPPER.convertValue(record, type));
+    }
+
+    /**
+     * @param dataInputFile data input file to extract records from (regex / delimited / fixed width / JSON,
+     *                      per the settings)
+     * @return lazy stream of records (with JSON input, each input object with the fields replaced)
+     */
+    public Stream<Map<String, Object>> records(File dataInputFile) throws IOException {
+        return records(DataBuilder.openDataInput(settingsConfig, dataInputFile, false));
+    }
+
+    /**
+     * @param source source of the records (closed when the stream is closed)
+     * @return lazy stream of records
+     */
+    public Stream<Map<String, Object>> records(RecordSource source) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(source),
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        source.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * @param source source of the records (the caller closes it)
+     * @return lazy iterator of records
+     */
+    public Iterator<Map<String, Object>> iterator(RecordSource source) {
+        try {
+            return new RecordIterator(source, settingsMapper.readValue(serializedSettings, SettingsConfig.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Problem copying settings/config: " + e.getMessage(), e);
+        }
+    }
+
+    private class RecordIterator implements Iterator<Map<String, Object>> {
+        private final RecordSource source;
+        private final AbstractEntityTypeDescriptor[] descriptors;
+        private final RecordContext context;
+        private final ObjectValueSink sink = new ObjectValueSink();
+        private long recordNumber = 0;
+        private boolean found;
+        private boolean hasRecord;
+
+        private RecordIterator(RecordSource source, SettingsConfig settingsCopy) {
+            this.source = source;
+            this.descriptors = plan.bind(settingsCopy);
+            this.context = new RecordContext(plan.getSeed());
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!found) {
+                try {
+                    hasRecord = source.find();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Problem reading data input: " + e.getMessage(), e);
+                }
+                found = true;
+            }
+            return hasRecord;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            found = false;
+
+            context.startRecord(source.match(), recordNumber++);
+            Map<String, Object> record = new LinkedHashMap<>();
+            if (context.getMatch() instanceof JsonRecord) {
+                // JSON input is mutated - its fields are kept, with the generated fields replaced in place
+                try {
+                    record = ROW_MAPPER.readValue(((JsonRecord) context.getMatch()).createParser(),
+                            LinkedHashMap.class);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Problem reading data input: " + e.getMessage(), e);
+                }
+            }
+            for (int slot = 0; slot < descriptors.length; slot++) {
+                descriptors[slot].setIterationState(context);
+                descriptors[slot].writeNextValue(sink);
+                record.put(plan.getFieldName(slot), sink.takeValue());
+            }
+            return record;
+        }
+    }
+}
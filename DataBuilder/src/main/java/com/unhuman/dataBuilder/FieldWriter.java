@@ -0,0 +1,20 @@
+package com.unhuman.dataBuilder;
+
+import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
+import com.unhuman.dataBuilder.descriptor.RecordContext;
+import com.unhuman.dataBuilder.output.BufferedValueSink;
+
+/**
+ * Writes all the fields of a record, in plan order, for an output format.
+ *
+ * @param <S> value sink of the output format
+ */
+@FunctionalInterface
+public interface FieldWriter<S extends BufferedValueSink> {
+    /**
+     * @param descriptors descriptors bound from the plan, indexed by slot
+     * @param context record being generated
+     * @param sink destination for the fields
+     */
+    void writeFields(AbstractEntityTypeDescriptor[] descriptors, RecordContext context, S sink);
+}
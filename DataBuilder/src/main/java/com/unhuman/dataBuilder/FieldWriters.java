@@ -0,0 +1,233 @@
+package com.unhuman.dataBuilder;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
+import com.unhuman.dataBuilder.descriptor.RecordContext;
+import com.unhuman.dataBuilder.output.BufferedValueSink;
+import com.unhuman.dataBuilder.output.CsvValueSink;
+import com.unhuman.dataBuilder.output.JsonValueSink;
+import com.unhuman.dataBuilder.output.OutputBuffer;
+import com.unhuman.dataBuilder.output.ValueSink;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the field writers for a plan, using one of the generation engines:
+ *
+ * INTERPRETED loops over the descriptors, so every descriptor call goes through the same (megamorphic) call site.
+ * BYTECODE generates a class for the plan with the field sequence unrolled and each descriptor called through
+ * its concrete type, so the JIT can inline the calls.  Generated classes are defined in this package with
+ * Lookup.defineClass (hidden classes need Java 15+), and are reused for plans with the same descriptor types.
+ * Writers are stateless, so they're shared by all threads.
+ */
+public final class FieldWriters {
+    public enum Engine { INTERPRETED, BYTECODE }
+
+    private static final AtomicInteger GENERATED_CLASS_COUNT = new AtomicInteger();
+    // generated classes, by output format and descriptor types
+    private static final Map<List<Object>, Class<?>> GENERATED_CLASSES = new ConcurrentHashMap<>();
+
+    private static final String DESCRIPTOR_ARRAY = Type.getDescriptor(AbstractEntityTypeDescriptor[].class);
+    private static final String WRITE_FIELDS_DESCRIPTOR = "(" + DESCRIPTOR_ARRAY
+            + Type.getDescriptor(RecordContext.class) + Type.getDescriptor(BufferedValueSink.class) + ")V";
+    private static final String NAMES_FIELD = "fieldNames";
+    private static final String NAMES_DESCRIPTOR = Type.getDescriptor(SerializableString[].class);
+
+    private FieldWriters() {
+    }
+
+    /**
+     * @param plan plan to write
+     * @param engine engine to use, unless timing descriptors
+     * @param metrics metrics, timing each descriptor (with the interpreted writer) when detailed
+     * @return CSV field writer
+     */
+    public static FieldWriter<CsvValueSink> csv(GenerationPlan plan, Engine engine, GenerationMetrics metrics) {
+        if (!metrics.isDetailed()) {
+            return csv(plan, engine);
+        }
+        return (descriptors, context, sink) -> {
+            long start = System.nanoTime();
+            for (int slot = 0; slot < descriptors.length; slot++) {
+                if (slot > 0) {
+                    sink.getOutput().write(',');
+                }
+                descriptors[slot].setIterationState(context);
+                descriptors[slot].writeNextValue(sink);
+                long end = System.nanoTime();
+                metrics.addDescriptorNanos(slot, end - start);
+                start = end;
+            }
+        };
+    }
+
+    /**
+     * @param plan plan to write
+     * @param engine engine to use, unless timing descriptors
+     * @param metrics metrics, timing each descriptor (with the interpreted writer) when detailed
+     * @return JSON field writer
+     */
+    public static FieldWriter<JsonValueSink> json(GenerationPlan plan, Engine engine, GenerationMetrics metrics) {
+        if (!metrics.isDetailed()) {
+            return json(plan, engine);
+        }
+        return (descriptors, context, sink) -> {
+            long start = System.nanoTime();
+            for (int slot = 0; slot < descriptors.length; slot++) {
+                sink.startField(plan.getJsonFieldName(slot));
+                descriptors[slot].setIterationState(context);
+                descriptors[slot].writeNextValue(sink);
+                long end = System.nanoTime();
+                metrics.addDescriptorNanos(slot, end - start);
+                start = end;
+            }
+        };
+    }
+
+    public static FieldWriter<CsvValueSink> csv(GenerationPlan plan, Engine engine) {
+        if (Engine.BYTECODE.equals(engine)) {
+            return generate(plan, false);
+        }
+        return (descriptors, context, sink) -> {
+            for (int slot = 0; slot < descriptors.length; slot++) {
+                if (slot > 0) {
+                    sink.getOutput().write(',');
+                }
+                descriptors[slot].setIterationState(context);
+                descriptors[slot].writeNextValue(sink);
+            }
+        };
+    }
+
+    public static FieldWriter<JsonValueSink> json(GenerationPlan plan, Engine engine) {
+        if (Engine.BYTECODE.equals(engine)) {
+            return generate(plan, true);
+        }
+        return (descriptors, context, sink) -> {
+            for (int slot = 0; slot < descriptors.length; slot++) {
+                sink.startField(plan.getJsonFieldName(slot));
+                descriptors[slot].setIterationState(context);
+                descriptors[slot].writeNextValue(sink);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S extends BufferedValueSink> FieldWriter<S> generate(GenerationPlan plan, boolean json) {
+        List<Object> key = new ArrayList<>();
+        key.add(json);
+        for (int slot = 0; slot < plan.getFieldCount(); slot++) {
+            key.add(plan.getFieldType(slot));
+        }
+        Class<?> writerClass = GENERATED_CLASSES.computeIfAbsent(key, unused -> defineClass(plan, json));
+
+        SerializableString[] fieldNames = new SerializableString[plan.getFieldCount()];
+        for (int slot = 0; slot < fieldNames.length; slot++) {
+            fieldNames[slot] = plan.getJsonFieldName(slot);
+        }
+        try {
+            return (FieldWriter<S>) writerClass.getConstructor(SerializableString[].class)
+                    .newInstance((Object) fieldNames);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Problem creating field writer: " + e.getMessage(), e);
+        }
+    }
+
+    private static Class<?> defineClass(GenerationPlan plan, boolean json) {
+        String className = Type.getInternalName(FieldWriters.class) + "$Generated"
+                + GENERATED_CLASS_COUNT.incrementAndGet();
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC, className,
+                null, Type.getInternalName(Object.class), new String[] { Type.getInternalName(FieldWriter.class) });
+        classWriter.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, NAMES_FIELD, NAMES_DESCRIPTOR, null, null)
+                .visitEnd();
+
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>",
+                "(" + NAMES_DESCRIPTOR + ")V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", "()V", false);
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitVarInsn(Opcodes.ALOAD, 1);
+        constructor.visitFieldInsn(Opcodes.PUTFIELD, className, NAMES_FIELD, NAMES_DESCRIPTOR);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        // locals: 0 = this, 1 = descriptors, 2 = context, 3 = sink, 4 = current descriptor
+        MethodVisitor method = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "writeFields", WRITE_FIELDS_DESCRIPTOR,
+                null, null);
+        method.visitCode();
+        for (int slot = 0; slot < plan.getFieldCount(); slot++) {
+            if (json) {
+                // sink.startField(fieldNames[slot])
+                method.visitVarInsn(Opcodes.ALOAD, 3);
+                method.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(JsonValueSink.class));
+                method.visitVarInsn(Opcodes.ALOAD, 0);
+                method.visitFieldInsn(Opcodes.GETFIELD, className, NAMES_FIELD, NAMES_DESCRIPTOR);
+                pushInt(method, slot);
+                method.visitInsn(Opcodes.AALOAD);
+                method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(JsonValueSink.class),
+                        "startField", "(" + Type.getDescriptor(SerializableString.class) + ")V", false);
+            } else if (slot > 0) {
+                // sink.getOutput().write(',')
+                method.visitVarInsn(Opcodes.ALOAD, 3);
+                method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(BufferedValueSink.class),
+                        "getOutput", "()" + Type.getDescriptor(OutputBuffer.class), false);
+                pushInt(method, ',');
+                method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(OutputBuffer.class),
+                        "write", "(I)V", false);
+            }
+
+            // descriptor = (ConcreteDescriptor) descriptors[slot]
+            String descriptorType = Type.getInternalName(plan.getFieldType(slot));
+            method.visitVarInsn(Opcodes.ALOAD, 1);
+            pushInt(method, slot);
+            method.visitInsn(Opcodes.AALOAD);
+            method.visitTypeInsn(Opcodes.CHECKCAST, descriptorType);
+            method.visitVarInsn(Opcodes.ASTORE, 4);
+
+            // descriptor.setIterationState(context)
+            method.visitVarInsn(Opcodes.ALOAD, 4);
+            method.visitVarInsn(Opcodes.ALOAD, 2);
+            method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, descriptorType, "setIterationState",
+                    "(" + Type.getDescriptor(RecordContext.class) + ")"
+                            + Type.getDescriptor(AbstractEntityTypeDescriptor.class), false);
+            method.visitInsn(Opcodes.POP);
+
+            // descriptor.writeNextValue(sink)
+            method.visitVarInsn(Opcodes.ALOAD, 4);
+            method.visitVarInsn(Opcodes.ALOAD, 3);
+            method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, descriptorType, "writeNextValue",
+                    "(" + Type.getDescriptor(ValueSink.class) + ")V", false);
+        }
+        method.visitInsn(Opcodes.RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        classWriter.visitEnd();
+
+        try {
+            return MethodHandles.lookup().defineClass(classWriter.toByteArray());
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Problem generating field writer: " + e.getMessage(), e);
+        }
+    }
+
+    private static void pushInt(MethodVisitor method, int value) {
+        if (value <= Short.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            method.visitLdcInsn(value);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.unhuman.dataBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.input.RecordSource;
+import com.unhuman.dataBuilder.output.BufferedValueSink;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.MatchResult;
+
+/**
+ * Metrics for a generation run - records and bytes written, reported as periodic progress on stderr.
+ *
+ * Detailed metrics also time the data input matching (regex extraction), record generation, each descriptor,
+ * and writing the output.  They cost a couple of clock reads per record and per field, so they're only
+ * collected on request.  Timing descriptors needs the interpreted record writer.
+ */
+public class GenerationMetrics {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    private final GenerationPlan plan;
+    private final boolean detailed;
+
+    private final LongAdder records = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder matchNanos = new LongAdder();
+    private final LongAdder generateNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final LongAdder[] descriptorNanos;
+
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos;
+    private ScheduledExecutorService progressReporter;
+    // console of the thread that started the progress reports (ie: a server job's transcript)
+    private PrintStream progressOutput;
+    private PrintStream progressError;
+    private boolean progressReported;
+
+    /**
+     * @param plan plan being generated
+     * @param detailed true to time matching, generation, descriptors and output
+     */
+    public GenerationMetrics(GenerationPlan plan, boolean detailed) {
+        this.plan = plan;
+        this.detailed = detailed;
+        this.descriptorNanos = new LongAdder[plan.getFieldCount()];
+        for (int slot = 0; slot < descriptorNanos.length; slot++) {
+            descriptorNanos[slot] = new LongAdder();
+        }
+    }
+
+    public boolean isDetailed() {
+        return detailed;
+    }
+
+    /**
+     * Report progress on stderr (of the calling thread's console) until stopped
+     * @param intervalSeconds time between reports
+     */
+    public synchronized void startProgress(int intervalSeconds) {
+        progressOutput = PromptHelper.getOutput();
+        progressError = PromptHelper.getError();
+        progressReporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        progressReporter.scheduleAtFixedRate(this::reportProgress, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the clock (and progress reports), reporting the final progress if any was reported
+     */
+    public synchronized void stop() {
+        endNanos = System.nanoTime();
+        if (progressReporter != null) {
+            progressReporter.shutdownNow();
+            progressReporter = null;
+            if (progressReported) {
+                printProgress(" (done)");
+            }
+        }
+    }
+
+    public void addRecords(long count) {
+        records.add(count);
+    }
+
+    public long getRecords() {
+        return records.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    void addDescriptorNanos(int slot, long nanos) {
+        descriptorNanos[slot].add(nanos);
+    }
+
+    /**
+     * @param output destination
+     * @return output stream counting (and, for detailed metrics, timing) what's written to output
+     */
+    public OutputStream measure(OutputStream output) {
+        return new FilterOutputStream(output) {
+            @Override
+            public void write(int b) throws IOException {
+                long start = detailed ? System.nanoTime() : 0;
+                out.write(b);
+                bytes.increment();
+                if (detailed) {
+                    writeNanos.add(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                long start = detailed ? System.nanoTime() : 0;
+                out.write(b, off, len);
+                bytes.add(len);
+                if (detailed) {
+                    writeNanos.add(System.nanoTime() - start);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param source record source (may be null)
+     * @return source timing find() for detailed metrics, otherwise source
+     */
+    public RecordSource measure(RecordSource source) {
+        if (!detailed || source == null) {
+            return source;
+        }
+        return new RecordSource() {
+            @Override
+            public boolean find() throws IOException {
+                long start = System.nanoTime();
+                try {
+                    return source.find();
+                } finally {
+                    matchNanos.add(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public MatchResult match() {
+                return source.match();
+            }
+
+            @Override
+            public MatchResult snapshot() {
+                return source.snapshot();
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+
+    /**
+     * @param renderer record renderer
+     * @return renderer counting (and, for detailed metrics, timing) the records rendered
+     */
+    public <S extends BufferedValueSink> ParallelRecordWriter.RecordRenderer<S> measure(
+            ParallelRecordWriter.RecordRenderer<S> renderer) {
+        if (!detailed) {
+            return (descriptors, context, sink) -> {
+                renderer.render(descriptors, context, sink);
+                records.increment();
+            };
+        }
+        return (descriptors, context, sink) -> {
+            long start = System.nanoTime();
+            renderer.render(descriptors, context, sink);
+            generateNanos.add(System.nanoTime() - start);
+            records.increment();
+        };
+    }
+
+    /**
+     * @return one line summary of the progress so far
+     */
+    public String formatProgress() {
+        double seconds = getElapsedNanos() / NANOS_PER_SECOND;
+        long recordCount = records.sum();
+        double megabytes = bytes.sum() / BYTES_PER_MB;
+        return String.format("%,d records (%,.0f records/sec), %,.1f MB written (%,.1f MB/sec), %,.0f sec elapsed",
+                recordCount, recordCount / seconds, megabytes, megabytes / seconds, seconds);
+    }
+
+    /**
+     * @return metrics by name (times in seconds)
+     */
+    public Map<String, Object> toMap() {
+        double seconds = getElapsedNanos() / NANOS_PER_SECOND;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("records", records.sum());
+        metrics.put("bytesWritten", bytes.sum());
+        metrics.put("elapsedSeconds", seconds);
+        metrics.put("recordsPerSecond", records.sum() / seconds);
+        metrics.put("bytesPerSecond", bytes.sum() / seconds);
+        if (detailed) {
+            metrics.put("matchSeconds", matchNanos.sum() / NANOS_PER_SECOND);
+            metrics.put("generateSeconds", generateNanos.sum() / NANOS_PER_SECOND);
+            metrics.put("writeSeconds", writeNanos.sum() / NANOS_PER_SECOND);
+            Map<String, Double> descriptorSeconds = new LinkedHashMap<>();
+            for (int slot = 0; slot < descriptorNanos.length; slot++) {
+                descriptorSeconds.put(plan.getFieldName(slot), descriptorNanos[slot].sum() / NANOS_PER_SECOND);
+            }
+            metrics.put("descriptorSeconds", descriptorSeconds);
+        }
+        return metrics;
+    }
+
+    /**
+     * Write the metrics as JSON
+     * @param file destination
+     */
+    public void write(File file) throws IOException {
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, toMap());
+    }
+
+    private long getElapsedNanos() {
+        return Math.max(((endNanos != 0) ? endNanos : System.nanoTime()) - startNanos, 1);
+    }
+
+    private synchronized void reportProgress() {
+        if (progressReporter == null) {
+            // stopped while waiting to report
+            return;
+        }
+        progressReported = true;
+        printProgress("");
+    }
+
+    private void printProgress(String suffix) {
+        progressOutput.flush();
+        progressError.printf("%s%s\n", formatProgress(), suffix);
+        progressError.flush();
+    }
+}
@@ -0,0 +1,110 @@
+package com.unhuman.dataBuilder;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable plan for generating data from a SettingsConfig.
+ *
+ * Fields are resolved to array slots once, and output that doesn't vary by record (headers, encoded
+ * field names) is precomputed.  Descriptors hold per-record state, so the plan doesn't reference them -
+ * each thread binds the plan to its own copy of the settings.  A plan can be shared across threads and runs.
+ */
+public final class GenerationPlan {
+    public static final int NO_SLOT = -1;
+
+    private final String[] fieldNames;
+    private final Class<? extends AbstractEntityTypeDescriptor>[] fieldTypes;
+    private final SerializableString[] jsonFieldNames;
+    private final Map<String, Integer> slots;
+    private final byte[] csvHeader;
+    private final Long seed;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private GenerationPlan(SettingsConfig settingsConfig) {
+        List<AbstractEntityTypeDescriptor> settings = settingsConfig.getSettings();
+        fieldNames = new String[settings.size()];
+        fieldTypes = new Class[settings.size()];
+        jsonFieldNames = new SerializableString[settings.size()];
+        Map<String, Integer> fieldSlots = new HashMap<>();
+        for (int i = 0; i < fieldNames.length; i++) {
+            fieldNames[i] = settings.get(i).getName();
+            fieldTypes[i] = settings.get(i).getClass();
+            jsonFieldNames[i] = new SerializedString(fieldNames[i]);
+            fieldSlots.putIfAbsent(fieldNames[i], i);
+        }
+        slots = Collections.unmodifiableMap(fieldSlots);
+        csvHeader = String.join(",", fieldNames).getBytes(StandardCharsets.UTF_8);
+        seed = settingsConfig.getSeed();
+    }
+
+    public static GenerationPlan compile(SettingsConfig settingsConfig) {
+        return new GenerationPlan(settingsConfig);
+    }
+
+    public int getFieldCount() {
+        return fieldNames.length;
+    }
+
+    public String getFieldName(int slot) {
+        return fieldNames[slot];
+    }
+
+    /**
+     * @param slot slot of the field
+     * @return concrete descriptor class of the field
+     */
+    public Class<? extends AbstractEntityTypeDescriptor> getFieldType(int slot) {
+        return fieldTypes[slot];
+    }
+
+    public SerializableString getJsonFieldName(int slot) {
+        return jsonFieldNames[slot];
+    }
+
+    /**
+     * @param name field name (or replacement token)
+     * @return slot of the field, or NO_SLOT if there's no such field
+     */
+    public int getSlot(String name) {
+        return slots.getOrDefault(name, NO_SLOT);
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void writeCsvHeader(OutputStream output) throws IOException {
+        output.write(csvHeader);
+    }
+
+    /**
+     * Bind the plan to settings, which must have the fields the plan was compiled from
+     * @param settingsConfig settings (or a copy of the settings) the plan was compiled from
+     * @return descriptors, indexed by slot
+     */
+    public AbstractEntityTypeDescriptor[] bind(SettingsConfig settingsConfig) {
+        AbstractEntityTypeDescriptor[] descriptors =
+                settingsConfig.getSettings().toArray(new AbstractEntityTypeDescriptor[0]);
+        if (descriptors.length != fieldNames.length) {
+            throw new IllegalArgumentException("Settings have " + descriptors.length + " fields, plan has "
+                    + fieldNames.length);
+        }
+        for (int i = 0; i < descriptors.length; i++) {
+            if (!fieldNames[i].equals(descriptors[i].getName()) || fieldTypes[i] != descriptors[i].getClass()) {
+                throw new IllegalArgumentException("Settings field " + descriptors[i].getName()
+                        + " doesn't match plan field " + fieldNames[i]);
+            }
+        }
+        return descriptors;
+    }
+}
@@ -0,0 +1,135 @@
+package com.unhuman.dataBuilder;
+
+import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
+import com.unhuman.dataBuilder.descriptor.RecordContext;
+import com.unhuman.dataBuilder.input.RecordSource;
+import com.unhuman.dataBuilder.output.BufferedValueSink;
+import com.unhuman.dataBuilder.output.OutputBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.MatchResult;
+
+/**
+ * Generates records in chunks on a pool of worker threads, writing them out in input order.
+ *
+ * Descriptors carry per-record state, so each worker binds the plan to its own copy of the settings,
+ * and has its own record context and output buffer.
+ *
+ * @param <S> value sink of the output format
+ */
+public class ParallelRecordWriter<S extends BufferedValueSink> {
+    private static final int CHUNK_SIZE = 1024;
+    // chunks generated ahead of the writer (per thread) - bounds the records held in memory
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+
+    @FunctionalInterface
+    public interface RecordRenderer<S extends BufferedValueSink> {
+        /**
+         * Render a single record
+         * @param descriptors descriptors to generate the record with, indexed by plan slot
+         * @param context record to generate, already started with its input match and record number
+         * @param sink destination for the record
+         */
+        void render(AbstractEntityTypeDescriptor[] descriptors, RecordContext context, S sink) throws IOException;
+    }
+
+    private class Worker {
+        private final AbstractEntityTypeDescriptor[] descriptors;
+        private final RecordContext context;
+        private final S sink;
+
+        private Worker(SettingsConfig settingsConfig) {
+            this.descriptors = plan.bind(settingsConfig);
+            this.context = new RecordContext(plan.getSeed());
+            this.sink = sinkFactory.apply(new OutputBuffer(CHUNK_SIZE * 128));
+        }
+    }
+
+    private final int threads;
+    private final GenerationPlan plan;
+    private final Supplier<SettingsConfig> settingsCopier;
+    private final Function<OutputBuffer, S> sinkFactory;
+
+    /**
+     * @param threads number of worker threads
+     * @param plan plan to generate records with
+     * @param settingsCopier creates an independent copy of the plan's settings for each worker
+     * @param sinkFactory creates the value sink for each worker's output buffer
+     */
+    public ParallelRecordWriter(int threads, GenerationPlan plan, Supplier<SettingsConfig> settingsCopier,
+                                Function<OutputBuffer, S> sinkFactory) {
+        this.threads = threads;
+        this.plan = plan;
+        this.settingsCopier = settingsCopier;
+        this.sinkFactory = sinkFactory;
+    }
+
+    public void write(RecordSource source, OutputStream output, RecordRenderer<S> renderer) throws IOException {
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(settingsCopier.get()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+        try {
+            long recordNumber = 0;
+            List<MatchResult> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (source.find()) {
+                chunk.add(source.snapshot());
+                if (chunk.size() == CHUNK_SIZE) {
+                    pending.add(submit(executor, workers, renderer, chunk, recordNumber));
+                    recordNumber += chunk.size();
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+
+                    while (pending.size() > threads * CHUNKS_IN_FLIGHT_PER_THREAD) {
+                        output.write(complete(pending.poll()));
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submit(executor, workers, renderer, chunk, recordNumber));
+            }
+
+            while (!pending.isEmpty()) {
+                output.write(complete(pending.poll()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Future<byte[]> submit(ExecutorService executor, ThreadLocal<Worker> workers,
+                                  RecordRenderer<S> renderer, List<MatchResult> chunk, long firstRecordNumber) {
+        return executor.submit(() -> {
+            Worker worker = workers.get();
+            OutputBuffer buffer = worker.sink.getOutput();
+            buffer.reset();
+            long recordNumber = firstRecordNumber;
+            for (MatchResult match: chunk) {
+                renderer.render(worker.descriptors, worker.context.startRecord(match, recordNumber++), worker.sink);
+            }
+            return buffer.toByteArray();
+        });
+    }
+
+    private byte[] complete(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted generating records", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException("Problem generating records: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -2,19 +2,29 @@ package com.unhuman.dataBuilder;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
+import com.unhuman.dataBuilder.descriptor.FileContentDescriptor;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class SettingsConfig {
     public LinkedHashSet<String> replacementTokens;
     private String regex;
+    private Character delimiter;
+    private int[] fieldWidths;
+    private int headerLines;
+    private boolean jsonInput;
+    private Long seed;
     private List<AbstractEntityTypeDescriptor> settings;
 
     public SettingsConfig() {
         replacementTokens = null;
         regex = null;
+        seed = null;
         settings = new ArrayList<>();
     }
 
@@ -39,6 +49,62 @@ public class SettingsConfig {
         this.regex = regex;
     }
 
+    /**
+     * @return delimiter to split data input records on, instead of matching a regex (null when not delimited)
+     */
+    public Character getDelimiter() {
+        return delimiter;
+    }
+
+    public void setDelimiter(Character delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * @return widths of the fields to split data input records into, instead of matching a regex
+     * (null when not fixed-width)
+     */
+    public int[] getFieldWidths() {
+        return fieldWidths;
+    }
+
+    public void setFieldWidths(int[] fieldWidths) {
+        this.fieldWidths = fieldWidths;
+    }
+
+    /**
+     * @return number of lines to skip at the start of a delimited / fixed-width data input file
+     */
+    public int getHeaderLines() {
+        return headerLines;
+    }
+
+    public void setHeaderLines(int headerLines) {
+        this.headerLines = headerLines;
+    }
+
+    /**
+     * @return true if the data input is a JSON array / JSON Lines file of objects to mutate
+     */
+    public boolean isJsonInput() {
+        return jsonInput;
+    }
+
+    public void setJsonInput(boolean jsonInput) {
+        this.jsonInput = jsonInput;
+    }
+
+    /**
+     * @return seed to reproducibly generate data from (null for unseeded, different data every run)
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
     public List<AbstractEntityTypeDescriptor> getSettings() {
         return settings;
     }
@@ -47,6 +113,18 @@ public class SettingsConfig {
         this.settings.add(setting);
     }
 
+    /**
+     * @return names of the capture groups (or header fields) file content is read from
+     */
+    @JsonIgnore
+    public Set<String> getGroupNames() {
+        return settings.stream()
+                .filter(setting -> setting instanceof FileContentDescriptor)
+                .map(setting -> ((FileContentDescriptor) setting).getGroupName())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
     public AbstractEntityTypeDescriptor getSetting(String name) {
         return settings.stream().filter(item -> name.equals(item.getName())).findFirst().get();
     }
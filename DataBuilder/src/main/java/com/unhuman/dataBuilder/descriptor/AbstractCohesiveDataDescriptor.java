@@ -1,20 +1,14 @@
 package com.unhuman.dataBuilder.descriptor;
 
-import java.util.HashSet;
-import java.util.Random;
-import java.util.Set;
-
 /**
  * This class is used as a base class for data that must be cohesively generated
  * Example: matching email + firstname + lastname
  *
  * This makes some expectations that related data is generated together
- * So, when a firstname is generated after another firstname, it will restart the seed.
+ * So, when a firstname is generated after another firstname, it will restart the identity.
+ * The identity is tracked by the RecordContext the serializers pass in.
  */
 public abstract class AbstractCohesiveDataDescriptor extends AbstractEntityTypeDescriptor {
-    private static final Set<Class> inProcessClasses = new HashSet<>();
-    private static Long randomSeed = new Random().nextLong();
-
     public AbstractCohesiveDataDescriptor(String name) {
         super(name);
     }
@@ -24,27 +18,10 @@ public abstract class AbstractCohesiveDataDescriptor extends AbstractEntityTypeD
         super();
     }
 
-    protected Long getRandomSeed() {
-        return randomSeed;
-    }
-
     /**
-     * Reset state - entirely new starting point (ie new record known to be starting)
+     * @return identity shared with the other cohesive fields of the current record
      */
-    public static void reset() {
-        inProcessClasses.clear();
-    }
-
-    public int getNextRandom(int maxExclusive) {
-        // if we have already seen this class and it's another instance of this class
-        // then we reset the seed.
-        if (inProcessClasses.contains(this.getClass())) {
-            randomSeed = new Random().nextLong();
-            inProcessClasses.clear();
-        }
-
-        inProcessClasses.add(this.getClass());
-
-        return new Random(randomSeed).nextInt(maxExclusive);
+    protected CohesiveIdentity getCohesiveIdentity() {
+        return getContext().getCohesiveIdentity(this);
     }
 }
@@ -1,19 +1,21 @@
 package com.unhuman.dataBuilder.descriptor;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.unhuman.dataBuilder.output.ValueSink;
 
-import java.util.Random;
-import java.util.regex.Matcher;
+import java.io.File;
+import java.util.regex.MatchResult;
 
 public abstract class AbstractEntityTypeDescriptor {
     public enum NullHandler { AS_NULL, EMPTY }
 
-    private Random random = new Random();
+    private final SplitMixRandom random = new SplitMixRandom();
 
     @JsonProperty
     private String name;
 
-    private Matcher currentMatcherState;
+    private RecordContext context;
 
     public AbstractEntityTypeDescriptor(String name) {
         this.name = name;
@@ -28,20 +30,68 @@ public abstract class AbstractEntityTypeDescriptor {
         return random.nextInt(maxExclusive);
     }
 
+    @JsonIgnore
+    public long getNextRandomLong() {
+        return random.nextLong();
+    }
+
+    @JsonIgnore
+    public double getNextRandomDouble() {
+        return random.nextDouble();
+    }
+
     public String getName() {
         return name;
     }
 
     public abstract void obtainConfiguration();
 
-    public abstract String getNextValue(NullHandler nullHandler);
+    /**
+     * Resolve relative file names in the configuration (ie: for a server job, whose files are in its client's
+     * directory rather than the server's)
+     * @param directory directory relative file names are in
+     */
+    public void resolveFiles(File directory) {
+        // Nothing - most descriptors don't use files
+    }
+
+    /**
+     * Write the next value
+     * @param sink destination, which formats the value for the output
+     */
+    public abstract void writeNextValue(ValueSink sink);
+
+    /**
+     * Get the next value as text - strings are quoted
+     * @param nullHandler how to represent a null value
+     * @return the value
+     */
+    public String getNextValue(NullHandler nullHandler) {
+        StringValueSink sink = new StringValueSink();
+        writeNextValue(sink);
+        return sink.getValue(nullHandler);
+    }
 
-    public AbstractEntityTypeDescriptor setIterationState(Matcher matcher) {
-        this.currentMatcherState = matcher;
+    /**
+     * Set the state of the record being generated
+     * When the context has a seed, random values are derived from the seed, record number and field name,
+     * so output is reproducible regardless of the order records are generated in.
+     * @param context record being generated
+     * @return this descriptor
+     */
+    public AbstractEntityTypeDescriptor setIterationState(RecordContext context) {
+        this.context = context;
+        if (context.getSeed() != null) {
+            random.setSeed(SplitMixRandom.deriveSeed(context.getSeed(), context.getRecordNumber(), name.hashCode()));
+        }
         return this;
     }
 
-    protected Matcher getCurrentMatcherState() {
-        return currentMatcherState;
+    protected RecordContext getContext() {
+        return context;
+    }
+
+    protected MatchResult getCurrentMatcherState() {
+        return context.getMatch();
     }
 }
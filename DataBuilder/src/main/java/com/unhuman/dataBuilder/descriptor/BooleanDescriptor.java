@@ -1,14 +1,10 @@
 package com.unhuman.dataBuilder.descriptor;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.unhuman.dataBuilder.input.PromptHelper;
-
-import java.util.Random;
+import com.unhuman.dataBuilder.output.ValueSink;
 
 public class BooleanDescriptor extends AbstractEntityTypeDescriptor {
-    private Random random = new Random();
-
     @JsonProperty
     private int percentTrue = 50;
 
@@ -26,10 +22,9 @@ public class BooleanDescriptor extends AbstractEntityTypeDescriptor {
         percentTrue = PromptHelper.promptPercentage(getName() + "=true", 50);
     }
 
-    @JsonIgnore
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        int checkPercentage = random.nextInt(100);
-        return Boolean.toString(checkPercentage < percentTrue);
+    public void writeNextValue(ValueSink sink) {
+        int checkPercentage = getNextRandom(100);
+        sink.writeBoolean(checkPercentage < percentTrue);
     }
 }
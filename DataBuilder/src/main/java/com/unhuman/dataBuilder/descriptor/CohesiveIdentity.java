@@ -0,0 +1,66 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import java.util.Arrays;
+
+/**
+ * The person that cohesive fields (first name, last name, email) of a record describe
+ *
+ * Identities are indices into the name lists, so values come from precomputed tables and
+ * generating them creates no garbage.
+ */
+public class CohesiveIdentity {
+    // emails only use the first initial, so first names are grouped by their initial
+    private static final String[] FIRST_INITIALS = Arrays.stream(FirstNameDescriptor.FIRST_NAMES)
+            .map(name -> name.substring(0, 1)).distinct().toArray(String[]::new);
+    private static final int[] FIRST_INITIAL_INDICES = Arrays.stream(FirstNameDescriptor.FIRST_NAMES)
+            .mapToInt(name -> Arrays.asList(FIRST_INITIALS).indexOf(name.substring(0, 1))).toArray();
+
+    private final SplitMixRandom random = new SplitMixRandom(0);
+    private int firstNameIndex;
+    private int lastNameIndex;
+
+    void start(long seed) {
+        random.setSeed(seed);
+        firstNameIndex = random.nextInt(FirstNameDescriptor.FIRST_NAMES.length);
+        lastNameIndex = random.nextInt(LastNameDescriptor.LAST_NAMES.length);
+    }
+
+    public String getFirstName() {
+        return FirstNameDescriptor.FIRST_NAMES[firstNameIndex];
+    }
+
+    public String getLastName() {
+        return LastNameDescriptor.LAST_NAMES[lastNameIndex];
+    }
+
+    int getFirstNameIndex() {
+        return firstNameIndex;
+    }
+
+    int getLastNameIndex() {
+        return lastNameIndex;
+    }
+
+    /**
+     * @return position of this identity's email in a table created by createEmails()
+     */
+    int getEmailIndex() {
+        return FIRST_INITIAL_INDICES[firstNameIndex] * LastNameDescriptor.LAST_NAMES.length + lastNameIndex;
+    }
+
+    /**
+     * Create every possible email for a domain
+     * @param domain email domain
+     * @return emails, indexed by getEmailIndex()
+     */
+    static Utf8Dictionary createEmails(String domain) {
+        String[] emails = new String[FIRST_INITIALS.length * LastNameDescriptor.LAST_NAMES.length];
+        for (int i = 0; i < FIRST_INITIALS.length; i++) {
+            for (int j = 0; j < LastNameDescriptor.LAST_NAMES.length; j++) {
+                emails[i * LastNameDescriptor.LAST_NAMES.length + j] =
+                        FIRST_INITIALS[i] + LastNameDescriptor.LAST_NAMES[j] + "@" + domain;
+            }
+        }
+        return new Utf8Dictionary(emails);
+    }
+}
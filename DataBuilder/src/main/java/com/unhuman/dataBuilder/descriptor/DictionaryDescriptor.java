@@ -0,0 +1,88 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.output.ValueSink;
+
+import java.io.File;
+
+import static com.unhuman.dataBuilder.input.PromptHelper.error;
+
+/**
+ * Values sampled from a (memory mapped) dictionary file - one value per line, uniformly or by weight
+ */
+public class DictionaryDescriptor extends AbstractEntityTypeDescriptor {
+    @JsonProperty
+    private String file;
+
+    @JsonProperty
+    private boolean weighted = false;
+
+    @JsonProperty
+    private boolean valueIsString = true;
+
+    // opened on first use
+    private MappedDictionary dictionary;
+    private MappedDictionary.Reader reader;
+
+    public DictionaryDescriptor(String name) {
+        super(name);
+    }
+
+    /**
+     * @param name name of the field
+     * @param file dictionary file
+     * @param weighted true if lines have weights
+     */
+    DictionaryDescriptor(String name, String file, boolean weighted) {
+        super(name);
+        this.file = file;
+        this.weighted = weighted;
+    }
+
+    // For Jackson
+    private DictionaryDescriptor() {
+        super();
+    }
+
+    @Override
+    public void obtainConfiguration() {
+        while (true) {
+            file = PromptHelper.promptForValue("dictionary file (one value per line)");
+            if (new File(file).isFile()) {
+                break;
+            }
+            error("File %s not found\n", file);
+        }
+        weighted = PromptHelper.promptYesNo("dictionary lines are weighted (value<tab>weight)?");
+        valueIsString = PromptHelper.promptYesNo(getName() + " is String value?");
+    }
+
+    @Override
+    public void resolveFiles(File directory) {
+        if (!new File(file).isAbsolute()) {
+            file = new File(directory, file).getPath();
+        }
+    }
+
+    @Override
+    public void writeNextValue(ValueSink sink) {
+        if (reader == null) {
+            dictionary = MappedDictionary.open(file, weighted);
+            reader = dictionary.createReader();
+        }
+        if (dictionary.size() == 0) {
+            sink.writeNull();
+            return;
+        }
+
+        int entry = weighted
+                ? dictionary.getEntry(getNextRandomDouble())
+                : getNextRandom(dictionary.size());
+        if (valueIsString) {
+            reader.writeString(entry, sink);
+        } else {
+            reader.writeLiteral(entry, sink);
+        }
+    }
+}
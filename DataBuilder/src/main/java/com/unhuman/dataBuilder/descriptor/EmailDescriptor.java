@@ -2,11 +2,15 @@ package com.unhuman.dataBuilder.descriptor;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.output.ValueSink;
 
 public class EmailDescriptor extends AbstractCohesiveDataDescriptor {
     @JsonProperty
     private String domain;
 
+    // every email possible for the domain, created on first use
+    private Utf8Dictionary emails;
+
     public EmailDescriptor(String name) {
         super(name);
     }
@@ -22,13 +26,10 @@ public class EmailDescriptor extends AbstractCohesiveDataDescriptor {
     }
 
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        // Track this item
-        getNextRandom(Integer.MAX_VALUE);
-
-        return '"' +
-                new FirstNameDescriptor(getName()).getSeededFirstName(getRandomSeed()).substring(0, 1) +
-                new LastNameDescriptor(getName()).getSeededLastName(getRandomSeed()) +
-                "@" + domain + '"';
+    public void writeNextValue(ValueSink sink) {
+        if (emails == null) {
+            emails = CohesiveIdentity.createEmails(domain);
+        }
+        emails.writeString(getCohesiveIdentity().getEmailIndex(), sink);
     }
 }
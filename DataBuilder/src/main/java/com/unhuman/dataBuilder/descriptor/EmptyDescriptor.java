@@ -1,5 +1,7 @@
 package com.unhuman.dataBuilder.descriptor;
 
+import com.unhuman.dataBuilder.output.ValueSink;
+
 public class EmptyDescriptor extends AbstractEntityTypeDescriptor {
     public EmptyDescriptor(String name) {
         super(name);
@@ -16,7 +18,7 @@ public class EmptyDescriptor extends AbstractEntityTypeDescriptor {
     }
 
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        return "\"\"";
+    public void writeNextValue(ValueSink sink) {
+        sink.writeString("");
     }
 }
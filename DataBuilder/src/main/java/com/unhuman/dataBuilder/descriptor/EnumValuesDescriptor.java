@@ -2,23 +2,51 @@ package com.unhuman.dataBuilder.descriptor;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.output.ValueSink;
 
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Random;
 
 import static com.unhuman.dataBuilder.input.PromptHelper.error;
 
+/**
+ * Values from a set, either with cumulative percentages (any remainder is null) or relative (real valued) weights.
+ *
+ * Percentages are sampled through a 100 slot lookup table, and weights through a Walker alias table,
+ * so sampling takes constant time regardless of the number of values.  Values are encoded once.
+ */
 public class EnumValuesDescriptor extends AbstractEntityTypeDescriptor {
-    private Random random = new Random();
+    private static final int PERCENT = 100;
+    private static final int NULL_VALUE = -1;
 
     @JsonProperty
     private Map<String, Integer> dataProbability = new LinkedHashMap<>();
 
+    @JsonProperty
+    private Map<String, Double> weights;
+
+    // built on first use
+    private byte[][] values;
+    private int[] percentLookup;
+    private double[] aliasProbability;
+    private int[] alias;
+
     public EnumValuesDescriptor(String name) {
         super(name);
     }
 
+    /**
+     * @param name name of the field
+     * @param dataProbability cumulative percentages (null to use weights)
+     * @param weights relative weights (null to use percentages)
+     */
+    EnumValuesDescriptor(String name, Map<String, Integer> dataProbability, Map<String, Double> weights) {
+        super(name);
+        this.dataProbability = dataProbability;
+        this.weights = weights;
+    }
+
     // For Jackson
     private EnumValuesDescriptor() {
         super();
@@ -26,6 +54,11 @@ public class EnumValuesDescriptor extends AbstractEntityTypeDescriptor {
 
     @Override
     public void obtainConfiguration() {
+        if (PromptHelper.promptYesNo("use relative weights (rather than percentages) for " + getName() + "?")) {
+            obtainWeights();
+            return;
+        }
+
         int totalPercentage = 0;
         while (totalPercentage != 100) {
             String item = PromptHelper.promptForValue("enum item (empty to stop / null remainder)", "");
@@ -49,14 +82,121 @@ public class EnumValuesDescriptor extends AbstractEntityTypeDescriptor {
         }
     }
 
+    private void obtainWeights() {
+        weights = new LinkedHashMap<>();
+        while (true) {
+            String item = PromptHelper.promptForValue("enum item (empty to stop)", "");
+            if (item.isBlank()) {
+                break;
+            }
+            String weight = PromptHelper.promptFilteredValue("weight for '" + item + "'",
+                    "^(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?$");
+            weights.put(item, Double.parseDouble(weight));
+        }
+    }
+
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        int itemRandom = random.nextInt(100);
-        for (String value: dataProbability.keySet()) {
-            if (itemRandom < dataProbability.get(value)) {
-                return '"' + value + '"';
+    public void writeNextValue(ValueSink sink) {
+        if (values == null) {
+            prepare();
+        }
+
+        int item;
+        if (percentLookup != null) {
+            item = percentLookup[getNextRandom(PERCENT)];
+        } else if (alias.length == 0) {
+            item = NULL_VALUE;
+        } else {
+            int column = getNextRandom(alias.length);
+            item = (getNextRandomDouble() < aliasProbability[column]) ? column : alias[column];
+        }
+
+        if (item == NULL_VALUE) {
+            sink.writeNull();
+        } else {
+            sink.writeString(values[item], 0, values[item].length);
+        }
+    }
+
+    private void prepare() {
+        if (weights != null) {
+            values = encode(weights);
+            buildAliasTable(weights.values().stream().mapToDouble(Double::doubleValue).toArray());
+        } else {
+            values = encode(dataProbability);
+            percentLookup = new int[PERCENT];
+            int slot = 0;
+            int item = 0;
+            for (int cumulativePercentage: dataProbability.values()) {
+                while (slot < Math.min(cumulativePercentage, PERCENT)) {
+                    percentLookup[slot++] = item;
+                }
+                item++;
+            }
+            while (slot < PERCENT) {
+                percentLookup[slot++] = NULL_VALUE;
+            }
+        }
+    }
+
+    private static byte[][] encode(Map<String, ?> items) {
+        return items.keySet().stream().map(value -> value.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+    }
+
+    /**
+     * Vose's method - each column holds an item's (scaled) probability, and the item to use for the rest
+     * @param itemWeights relative weights
+     */
+    private void buildAliasTable(double[] itemWeights) {
+        int count = itemWeights.length;
+        double total = 0;
+        for (double weight: itemWeights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid weight for " + getName() + ": " + weight);
+            }
+            total += weight;
+        }
+        aliasProbability = new double[(total > 0) ? count : 0];
+        alias = new int[aliasProbability.length];
+        if (total == 0) {
+            return;
+        }
+
+        double[] scaled = new double[count];
+        int[] small = new int[count];
+        int[] large = new int[count];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < count; i++) {
+            scaled[i] = itemWeights[i] * count / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
             }
         }
-        return NullHandler.AS_NULL.equals(nullHandler) ? null : "";
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            aliasProbability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // whatever remains is (within rounding) a full column
+        while (largeCount > 0) {
+            int item = large[--largeCount];
+            aliasProbability[item] = 1.0;
+            alias[item] = item;
+        }
+        while (smallCount > 0) {
+            int item = small[--smallCount];
+            aliasProbability[item] = 1.0;
+            alias[item] = item;
+        }
     }
 }
@@ -1,14 +1,20 @@
 package com.unhuman.dataBuilder.descriptor;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.unhuman.dataBuilder.input.InputMatch;
 import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.output.ValueSink;
 
-import java.util.regex.Matcher;
+import java.util.regex.MatchResult;
 
 public class FileContentDescriptor extends AbstractEntityTypeDescriptor {
     @JsonProperty
     private int fieldFromContent = -1;
 
+    // named capture group (or header field) to use instead of fieldFromContent
+    @JsonProperty
+    private String groupName;
+
     @JsonProperty
     private boolean isString = false;
 
@@ -23,20 +29,69 @@ public class FileContentDescriptor extends AbstractEntityTypeDescriptor {
 
     @Override
     public void obtainConfiguration() {
-        fieldFromContent = PromptHelper.promptIntegerValue("regex group");
+        String group = PromptHelper.promptForValue("regex group / field number (or name)");
+        if (group.matches("\\d+")) {
+            fieldFromContent = Integer.parseInt(group);
+        } else {
+            groupName = group;
+        }
         String checkYesNo = PromptHelper.promptFilteredValue(
                 getName() + " is String value? (y/n)", "^[YyNn]$");
         isString = checkYesNo.toLowerCase().equals("y");
     }
 
+    /**
+     * @return named capture group (or header field) the content is from (null when it's from a group number)
+     */
+    public String getGroupName() {
+        return groupName;
+    }
+
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        Matcher matcher = getCurrentMatcherState();
-        String value = matcher.group(fieldFromContent);
+    public void writeNextValue(ValueSink sink) {
+        MatchResult matcher = getCurrentMatcherState();
+        InputMatch match = (matcher instanceof InputMatch) ? (InputMatch) matcher : null;
+        int start;
+        int end;
+        CharSequence text;
+        if (groupName != null) {
+            if (match == null) {
+                throw new IllegalArgumentException("No group named " + groupName + " for " + getName());
+            }
+            try {
+                start = match.start(groupName);
+                end = match.end(groupName);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("No group named " + groupName + " for " + getName(), e);
+            }
+            text = (start >= 0) ? match.getText(groupName) : null;
+        } else {
+            start = matcher.start(fieldFromContent);
+            end = matcher.end(fieldFromContent);
+            text = (match != null && start >= 0) ? match.getText(fieldFromContent) : null;
+        }
+        if (start < 0) {
+            sink.writeNull();
+            return;
+        }
+
+        // copy straight from the input when possible, rather than through a String
+        if (text != null) {
+            if (isString) {
+                sink.writeString(text, start, end);
+            } else {
+                sink.writeLiteral(text, start, end);
+            }
+            return;
+        }
 
+        String value = (groupName != null) ? match.group(groupName) : matcher.group(fieldFromContent);
         if (value == null) {
-            return NullHandler.AS_NULL.equals(nullHandler) ? null : "";
+            sink.writeNull();
+        } else if (isString) {
+            sink.writeString(value);
+        } else {
+            sink.writeLiteral(value);
         }
-        return isString ? '"' + value + '"' : value;
     }
 }
@@ -1,6 +1,6 @@
 package com.unhuman.dataBuilder.descriptor;
 
-import java.util.Random;
+import com.unhuman.dataBuilder.output.ValueSink;
 
 public class FirstNameDescriptor extends AbstractCohesiveDataDescriptor {
     public FirstNameDescriptor(String name) {
@@ -18,13 +18,8 @@ public class FirstNameDescriptor extends AbstractCohesiveDataDescriptor {
     }
 
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        return '"' + FIRST_NAMES[getNextRandom(FIRST_NAMES.length)] + '"';
-    }
-
-    String getSeededFirstName(long seed) {
-        Random random = new Random(seed);
-        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+    public void writeNextValue(ValueSink sink) {
+        FIRST_NAMES_UTF8.writeString(getCohesiveIdentity().getFirstNameIndex(), sink);
     }
 
     // snagged from: https://raw.githubusercontent.com/dominictarr/random-name/master/first-names.json
@@ -56,4 +51,7 @@ public class FirstNameDescriptor extends AbstractCohesiveDataDescriptor {
             "Yalonda","Yasmeen","Yasmin","Yelena","Yetta","Yettie","Yetty","Yevette","Ynes","Ynez","Yoko","Yolanda","Yolande","Yolane","Yolanthe","Yoshi","Yoshiko","Yovonnda","Ysabel","Yvette","Yvonne",
             "Zabrina","Zahara","Zandra","Zaneta","Zara","Zarah","Zaria","Zarla","Zea","Zelda","Zelma","Zena","Zenia","Zia","Zilvia","Zita","Zitella","Zoe","Zola","Zonda","Zondra","Zonnya","Zora","Zorah","Zorana","Zorina","Zorine","ZsaZsa","Zsazsa","Zulema","Zuzana"
     };
+
+    // FIRST_NAMES pre-encoded for output (must follow FIRST_NAMES)
+    static final Utf8Dictionary FIRST_NAMES_UTF8 = new Utf8Dictionary(FIRST_NAMES);
 }
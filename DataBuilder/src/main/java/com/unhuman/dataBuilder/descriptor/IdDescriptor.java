@@ -2,8 +2,7 @@ package com.unhuman.dataBuilder.descriptor;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.unhuman.dataBuilder.input.PromptHelper;
-
-import java.util.UUID;
+import com.unhuman.dataBuilder.output.ValueSink;
 
 public class IdDescriptor extends AbstractEntityTypeDescriptor {
     private enum IdType { INCREMENTING, GUID };
@@ -19,6 +18,9 @@ public class IdDescriptor extends AbstractEntityTypeDescriptor {
 
     private int incrementingCurrentId = 0;
 
+    // reused to format string ids
+    private final StringBuilder idText = new StringBuilder(36);
+
     public IdDescriptor(String name) {
         super(name);
     }
@@ -51,16 +53,45 @@ public class IdDescriptor extends AbstractEntityTypeDescriptor {
         }
     }
 
-    public String getNextValue(NullHandler nullHandler) {
+    @Override
+    public AbstractEntityTypeDescriptor setIterationState(RecordContext context) {
+        // Ids follow the record number, so they stay contiguous when records are generated out of order
+        incrementingCurrentId = incrementingStartingId + (int) context.getRecordNumber();
+        return super.setIterationState(context);
+    }
+
+    @Override
+    public void writeNextValue(ValueSink sink) {
         switch (idType) {
             case INCREMENTING:
-                return incrementingCurrentIdIsString
-                        ? '"' + String.valueOf(incrementingCurrentId++) + '"'
-                        : String.valueOf(incrementingCurrentId++);
+                if (incrementingCurrentIdIsString) {
+                    idText.setLength(0);
+                    sink.writeString(idText.append(incrementingCurrentId++));
+                } else {
+                    sink.writeInt(incrementingCurrentId++);
+                }
+                break;
             case GUID:
-                return '"' + UUID.randomUUID().toString() + '"';
+                // version 4 (random) UUID from this descriptor's random values, so it's reproducible when seeded
+                long mostSignificantBits = (getNextRandomLong() & ~0xF000L) | 0x4000L;
+                long leastSignificantBits = (getNextRandomLong() & ~(0x3L << 62)) | (0x2L << 62);
+                idText.setLength(0);
+                appendHex(mostSignificantBits >>> 32, 8).append('-');
+                appendHex(mostSignificantBits >>> 16, 4).append('-');
+                appendHex(mostSignificantBits, 4).append('-');
+                appendHex(leastSignificantBits >>> 48, 4).append('-');
+                appendHex(leastSignificantBits, 12);
+                sink.writeString(idText);
+                break;
             default:
                 throw new RuntimeException("Unknown idType: " + idType.name());
         }
     }
+
+    private StringBuilder appendHex(long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            idText.append(Character.forDigit((int) (value >>> shift) & 0xF, 16));
+        }
+        return idText;
+    }
 }
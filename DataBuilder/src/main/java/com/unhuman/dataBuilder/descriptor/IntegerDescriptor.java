@@ -2,14 +2,11 @@ package com.unhuman.dataBuilder.descriptor;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.unhuman.dataBuilder.input.PromptHelper;
-
-import java.util.Random;
+import com.unhuman.dataBuilder.output.ValueSink;
 
 import static com.unhuman.dataBuilder.input.PromptHelper.error;
 
 public class IntegerDescriptor extends AbstractEntityTypeDescriptor {
-    private Random random = new Random();
-
     @JsonProperty
     private int minValue;
 
@@ -38,8 +35,8 @@ public class IntegerDescriptor extends AbstractEntityTypeDescriptor {
     }
 
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        int nextValue = minValue + random.nextInt(maxValue - minValue);
-        return Integer.toString(nextValue);
+    public void writeNextValue(ValueSink sink) {
+        int nextValue = minValue + getNextRandom(maxValue - minValue);
+        sink.writeInt(nextValue);
     }
 }
@@ -1,6 +1,6 @@
 package com.unhuman.dataBuilder.descriptor;
 
-import java.util.Random;
+import com.unhuman.dataBuilder.output.ValueSink;
 
 public class LastNameDescriptor extends AbstractCohesiveDataDescriptor {
     public LastNameDescriptor(String name) {
@@ -18,17 +18,15 @@ public class LastNameDescriptor extends AbstractCohesiveDataDescriptor {
     }
 
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        return '"' + LAST_NAMES[getNextRandom(LAST_NAMES.length)] + '"';
-    }
-
-    String getSeededLastName(long seed) {
-        Random random = new Random(seed);
-        return LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    public void writeNextValue(ValueSink sink) {
+        LAST_NAMES_UTF8.writeString(getCohesiveIdentity().getLastNameIndex(), sink);
     }
 
     // truncated from: https://raw.githubusercontent.com/rossgoodwin/american-names/master/surnames.json
     public static final String[] LAST_NAMES = {
             "Smith", "Johnson", "Williams", "Brown", "Jones", "Miller", "Davis", "Garcia", "Rodriguez", "Wilson", "Martinez", "Anderson", "Taylor", "Thomas", "Hernandez", "Moore", "Martin", "Jackson", "Thompson", "White", "Lopez", "Lee", "Gonzalez", "Harris", "Clark", "Lewis", "Robinson", "Walker", "Perez", "Hall", "Young", "Allen", "Sanchez", "Wright", "King", "Scott", "Green", "Baker", "Adams", "Nelson", "Hill", "Ramirez", "Campbell", "Mitchell", "Roberts", "Carter", "Phillips", "Evans", "Turner", "Torres", "Parker", "Collins", "Edwards", "Stewart", "Flores", "Morris", "Nguyen", "Murphy", "Rivera", "Cook", "Rogers", "Morgan", "Peterson", "Cooper", "Reed", "Bailey", "Bell", "Gomez", "Kelly", "Howard", "Ward", "Cox", "Diaz", "Richardson", "Wood", "Watson", "Brooks", "Bennett", "Gray", "James", "Reyes", "Cruz", "Hughes", "Price", "Myers", "Long", "Foster", "Sanders", "Ross", "Morales", "Powell", "Sullivan", "Russell", "Ortiz", "Jenkins", "Gutierrez", "Perry", "Butler", "Barnes", "Fisher", "Henderson", "Coleman", "Simmons", "Patterson", "Jordan", "Reynolds", "Hamilton", "Graham", "Kim", "Gonzales", "Alexander", "Ramos", "Wallace", "Griffin", "West", "Cole", "Hayes", "Chavez", "Gibson", "Bryant", "Ellis", "Stevens", "Murray", "Ford", "Marshall", "Owens", "Mcdonald", "Harrison", "Ruiz", "Kennedy", "Wells", "Alvarez", "Woods", "Mendoza", "Castillo", "Olson", "Webb", "Washington", "Tucker", "Freeman", "Burns", "Henry", "Vasquez", "Snyder", "Simpson", "Crawford", "Jimenez", "Porter", "Mason", "Shaw", "Gordon", "Wagner", "Hunter", "Romero", "Hicks", "Dixon", "Hunt", "Palmer", "Robertson", "Black", "Holmes", "Stone", "Meyer", "Boyd", "Mills", "Warren", "Fox", "Rose", "Rice", "Moreno", "Schmidt", "Patel", "Ferguson", "Nichols", "Herrera", "Medina", "Ryan", "Fernandez", "Weaver", "Daniels", "Stephens", "Gardner", "Payne", "Kelley", "Dunn", "Pierce", "Arnold", "Tran", "Spencer", "Peters", "Hawkins", "Grant", "Hansen", "Castro", "Hoffman", "Hart", "Elliott", "Cunningham", "Knight"
     };
+
+    // LAST_NAMES pre-encoded for output (must follow LAST_NAMES)
+    static final Utf8Dictionary LAST_NAMES_UTF8 = new Utf8Dictionary(LAST_NAMES);
 }
@@ -0,0 +1,314 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import com.unhuman.dataBuilder.output.ValueSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.unhuman.dataBuilder.input.PromptHelper.error;
+
+/**
+ * Newline-delimited (UTF-8) file of values, memory mapped so entries are only read when they're written.
+ * Blank lines are ignored.  Weighted dictionaries have a weight after the last tab of each line
+ * ("value\tweight"), and entries are sampled in proportion to their weights.
+ *
+ * The offset of each entry (and cumulative weights) are kept in an index file next to the dictionary
+ * (name.idx), built on first use and rebuilt when the dictionary changes, so opening a dictionary of
+ * millions of entries just maps two files.  Dictionaries are shared - readers use their own view - until the
+ * dictionary file's size or modification time changes, when it's reopened.
+ */
+public class MappedDictionary {
+    private static final int INDEX_MAGIC = 0x44424958;
+    private static final int INDEX_VERSION = 1;
+    // magic, version, dictionary size, dictionary modified time, entries, weighted
+    private static final int INDEX_HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4;
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private static final Map<String, MappedDictionary> DICTIONARIES = new ConcurrentHashMap<>();
+
+    private final ByteBuffer content;
+    private final IntBuffer offsets;
+    private final DoubleBuffer cumulativeWeights;
+    private final int size;
+    private final boolean weighted;
+    // dictionary file size and modification time, when it was opened
+    private final long fileSize;
+    private final long fileModified;
+
+    private MappedDictionary(ByteBuffer content, ByteBuffer index) {
+        this.content = content;
+        this.fileSize = index.getLong(8);
+        this.fileModified = index.getLong(16);
+        this.size = index.getInt(24);
+        this.weighted = index.getInt(28) != 0;
+        index.position(INDEX_HEADER_SIZE);
+        this.offsets = index.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        if (weighted) {
+            index.position(INDEX_HEADER_SIZE + size * Integer.BYTES);
+            this.cumulativeWeights = index.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        } else {
+            this.cumulativeWeights = null;
+        }
+    }
+
+    /**
+     * Open a dictionary (shared by everything opening the same file the same way, while it's unchanged)
+     * @param file dictionary file
+     * @param weighted true if lines have weights
+     * @return dictionary
+     */
+    public static MappedDictionary open(String file, boolean weighted) {
+        Path path = Path.of(file).toAbsolutePath().normalize();
+        // replaces a stale entry, so edited dictionaries aren't held (mapped) for the life of the process
+        return DICTIONARIES.compute(path + (weighted ? "\tweighted" : ""), (key, dictionary) -> {
+            try {
+                if (dictionary != null && dictionary.isCurrent(path)) {
+                    return dictionary;
+                }
+                return load(path, weighted);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Problem opening dictionary " + file + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private boolean isCurrent(Path path) throws IOException {
+        return Files.size(path) == fileSize && Files.getLastModifiedTime(path).toMillis() == fileModified;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    /**
+     * @return view of the dictionary for a single thread to read entries with
+     */
+    public Reader createReader() {
+        return new Reader();
+    }
+
+    /**
+     * @param weight random value in [0, 1)
+     * @return entry with that position in the cumulative weights (uniformly spread when not weighted)
+     */
+    public int getEntry(double weight) {
+        if (!weighted) {
+            return Math.min((int) (weight * size), size - 1);
+        }
+        double target = weight * cumulativeWeights.get(size - 1);
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeWeights.get(middle) > target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Reads entries for a single thread, through a reusable buffer
+     */
+    public class Reader {
+        private final ByteBuffer view = content.duplicate();
+        private byte[] entry = new byte[256];
+
+        /**
+         * Write an entry as a string value
+         * @param index entry to write
+         * @param sink destination
+         */
+        public void writeString(int index, ValueSink sink) {
+            sink.writeString(entry, 0, read(index));
+        }
+
+        /**
+         * Write an entry as a literal (numeric / boolean) value
+         * @param index entry to write
+         * @param sink destination
+         */
+        public void writeLiteral(int index, ValueSink sink) {
+            int length = read(index);
+            sink.writeLiteral(new String(entry, 0, length, StandardCharsets.UTF_8));
+        }
+
+        private int read(int index) {
+            int start = offsets.get(index);
+            int end = start;
+            int limit = view.limit();
+            while (end < limit && view.get(end) != '\n') {
+                end++;
+            }
+            if (end > start && view.get(end - 1) == '\r') {
+                end--;
+            }
+            if (weighted) {
+                while (end > start && view.get(end - 1) != '\t') {
+                    end--;
+                }
+                end--;
+            }
+
+            int length = end - start;
+            if (length > entry.length) {
+                entry = new byte[Math.max(length, entry.length * 2)];
+            }
+            view.position(start);
+            view.get(entry, 0, length);
+            return length;
+        }
+    }
+
+    private static MappedDictionary load(Path path, boolean weighted) throws IOException {
+        ByteBuffer content;
+        long size;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Dictionary too large: " + size + " bytes");
+            }
+            content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        long modified = Files.getLastModifiedTime(path).toMillis();
+
+        Path indexPath = path.resolveSibling(path.getFileName() + INDEX_SUFFIX);
+        ByteBuffer index = mapIndex(indexPath, size, modified, weighted);
+        if (index == null) {
+            index = buildIndex(content, size, modified, weighted);
+            saveIndex(path, indexPath, index);
+        }
+        return new MappedDictionary(content, index);
+    }
+
+    /**
+     * Save an index for next time, if possible (ie: not a read only directory) - otherwise it's rebuilt
+     */
+    private static void saveIndex(Path path, Path indexPath, ByteBuffer index) {
+        Path temporary = null;
+        try {
+            // written to the side then moved, so readers never see a partial index
+            temporary = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(),
+                    INDEX_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.write(index.duplicate());
+            }
+            Files.move(temporary, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            error("Couldn't save dictionary index %s (it will be rebuilt next time): %s\n", indexPath, e);
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException deleteException) {
+                    error("Problem deleting %s: %s\n", temporary, deleteException.getMessage());
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer mapIndex(Path indexPath, long size, long modified, boolean weighted)
+            throws IOException {
+        if (!Files.isRegularFile(indexPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            if (channel.size() < INDEX_HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            boolean current = index.getInt(0) == INDEX_MAGIC && index.getInt(4) == INDEX_VERSION
+                    && index.getLong(8) == size && index.getLong(16) == modified
+                    && (index.getInt(28) != 0) == weighted
+                    && channel.size() == indexSize(index.getInt(24), weighted);
+            return current ? index : null;
+        }
+    }
+
+    private static ByteBuffer buildIndex(ByteBuffer content, long size, long modified, boolean weighted) {
+        int entries = 0;
+        for (int position = 0; position < size; ) {
+            int end = lineEnd(content, position);
+            if (!isBlank(content, position, end)) {
+                entries++;
+            }
+            position = end + 1;
+        }
+
+        ByteBuffer index = ByteBuffer.allocate((int) indexSize(entries, weighted)).order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putLong(size).putLong(modified).putInt(entries)
+                .putInt(weighted ? 1 : 0);
+        int weightsPosition = INDEX_HEADER_SIZE + entries * Integer.BYTES;
+        double totalWeight = 0;
+        int entry = 0;
+        for (int position = 0; position < size; ) {
+            int end = lineEnd(content, position);
+            if (!isBlank(content, position, end)) {
+                index.putInt(INDEX_HEADER_SIZE + entry * Integer.BYTES, position);
+                if (weighted) {
+                    totalWeight += parseWeight(content, position, end, entry);
+                    index.putDouble(weightsPosition + entry * Double.BYTES, totalWeight);
+                }
+                entry++;
+            }
+            position = end + 1;
+        }
+        index.position(0);
+        return index;
+    }
+
+    private static long indexSize(int entries, boolean weighted) {
+        return INDEX_HEADER_SIZE + (long) entries * (Integer.BYTES + (weighted ? Double.BYTES : 0));
+    }
+
+    private static int lineEnd(ByteBuffer content, int position) {
+        int limit = content.limit();
+        while (position < limit && content.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isBlank(ByteBuffer content, int start, int end) {
+        return start == end || (end == start + 1 && content.get(start) == '\r');
+    }
+
+    private static double parseWeight(ByteBuffer content, int start, int end, int entry) {
+        int tab = end;
+        while (tab > start && content.get(tab - 1) != '\t') {
+            tab--;
+        }
+        byte[] weightBytes = new byte[end - tab];
+        for (int i = tab; i < end; i++) {
+            weightBytes[i - tab] = content.get(i);
+        }
+        String weight = new String(weightBytes, StandardCharsets.US_ASCII).trim();
+        try {
+            double value = (tab > start) ? Double.parseDouble(weight) : -1;
+            if (value < 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new NumberFormatException();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid weight for dictionary entry " + (entry + 1) + ": " + weight);
+        }
+    }
+}
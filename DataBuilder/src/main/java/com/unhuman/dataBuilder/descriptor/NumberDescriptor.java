@@ -0,0 +1,294 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.output.ValueSink;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.CharBuffer;
+import java.util.function.DoubleSupplier;
+
+import static com.unhuman.dataBuilder.input.PromptHelper.error;
+
+/**
+ * Numbers (whole or with a fixed number of decimal places) from a distribution, within [minValue, maxValue].
+ * UNIFORM: evenly spread over the range
+ * NORMAL: around the mean, with the standard deviation (clamped to the range)
+ * EXPONENTIAL: minValue plus exponentially distributed values with the mean (clamped to the range)
+ * ZIPF: whole numbers, the lowest the most frequent, then the next... with the exponent's skew (ie: hot keys)
+ * Values are rounded to the decimal places, staying within the range (so fractional bounds exclude the whole
+ * numbers outside of them).
+ * Bounds are doubles, so whole numbers are exact up to +/- 2^53.  Values too large to scale into a long
+ * (with the decimal places) are formatted with BigDecimal.
+ */
+public class NumberDescriptor extends AbstractEntityTypeDescriptor {
+    public enum Distribution { UNIFORM, NORMAL, EXPONENTIAL, ZIPF }
+
+    private static final int MAX_DECIMAL_PLACES = 9;
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+            10_000_000L, 100_000_000L, 1_000_000_000L };
+    // 2^63 - doubles with a smaller magnitude fit in a long
+    private static final double LONG_LIMIT = 0x1p63;
+
+    @JsonProperty
+    private Distribution distribution = Distribution.UNIFORM;
+
+    @JsonProperty
+    private double minValue;
+
+    @JsonProperty
+    private double maxValue;
+
+    @JsonProperty
+    private int decimalPlaces = 0;
+
+    @JsonProperty
+    private double mean;
+
+    @JsonProperty
+    private double standardDeviation;
+
+    @JsonProperty
+    private double exponent = 1.0;
+
+    private final DoubleSupplier uniform = this::getNextRandomDouble;
+    // built on first use
+    private ZipfSampler zipfSampler;
+    // bounds of the values written, scaled by 10^decimalPlaces (whole numbers for ZIPF) - computed on first use
+    private boolean boundsScaled;
+    private double lowestScaled;
+    private double highestScaled;
+    private final char[] decimal = new char[32];
+    private final CharBuffer decimalText = CharBuffer.wrap(decimal);
+
+    public NumberDescriptor(String name) {
+        super(name);
+    }
+
+    /**
+     * @param name name of the field
+     * @param distribution distribution of the values
+     * @param minValue lowest value
+     * @param maxValue highest value
+     * @param decimalPlaces decimal places (0 for whole numbers)
+     */
+    NumberDescriptor(String name, Distribution distribution, double minValue, double maxValue, int decimalPlaces) {
+        super(name);
+        this.distribution = distribution;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.decimalPlaces = decimalPlaces;
+    }
+
+    void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    void setStandardDeviation(double standardDeviation) {
+        this.standardDeviation = standardDeviation;
+    }
+
+    // For Jackson
+    private NumberDescriptor() {
+        super();
+    }
+
+    @Override
+    public void obtainConfiguration() {
+        distribution = Distribution.valueOf(PromptHelper.promptForEnumValue("distribution for " + getName(),
+                PromptHelper.StartingIndex.ONE, Distribution.values()));
+        while (true) {
+            minValue = PromptHelper.promptDecimalValue("Minimum Value");
+            maxValue = PromptHelper.promptDecimalValue("Maximum Value");
+            if (minValue > maxValue) {
+                error("Minimum Value (%s) must be <= Maximum Value (%s)\n", minValue, maxValue);
+            } else if (distribution == Distribution.ZIPF && !hasValues(0)) {
+                error("No whole numbers in range (%s - %s)\n", minValue, maxValue);
+            } else if (distribution == Distribution.ZIPF && getZipfElements() <= 0) {
+                error("Range (%s - %s) too large for %s\n", minValue, maxValue, distribution);
+            } else {
+                break;
+            }
+        }
+
+        switch (distribution) {
+            case NORMAL:
+                mean = PromptHelper.promptDecimalValue("mean");
+                standardDeviation = PromptHelper.promptDecimalValue("standard deviation");
+                break;
+            case EXPONENTIAL:
+                mean = PromptHelper.promptDecimalValue("mean (above the minimum value)");
+                break;
+            case ZIPF:
+                while (!((exponent = PromptHelper.promptDecimalValue("exponent (skew, ie: 1.0)")) > 0)) {
+                    error("Exponent (%s) must be > 0\n", exponent);
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (distribution != Distribution.ZIPF) {
+            while (true) {
+                decimalPlaces = PromptHelper.promptIntegerValue("decimal places", 0);
+                if (decimalPlaces < 0 || decimalPlaces > MAX_DECIMAL_PLACES) {
+                    error("Decimal places (%d) must be 0 - %d\n", decimalPlaces, MAX_DECIMAL_PLACES);
+                } else if (!hasValues(decimalPlaces)) {
+                    error("No values with %d decimal places in range (%s - %s)\n", decimalPlaces, minValue, maxValue);
+                } else {
+                    break;
+                }
+            }
+        }
+        boundsScaled = false;
+    }
+
+    @Override
+    public void writeNextValue(ValueSink sink) {
+        if (!boundsScaled) {
+            scaleBounds();
+        }
+        double value;
+        switch (distribution) {
+            case UNIFORM:
+                if (decimalPlaces == 0 && isLongRange()) {
+                    sink.writeLong(getNextRandomLong((long) lowestScaled, (long) highestScaled));
+                    return;
+                }
+                value = minValue + getNextRandomDouble() * (maxValue - minValue);
+                break;
+            case NORMAL:
+                // Box-Muller (one of the pair, so each value costs the same draws)
+                double radius = Math.sqrt(-2.0 * Math.log(1.0 - getNextRandomDouble()));
+                value = mean + standardDeviation * radius * Math.cos(2.0 * Math.PI * getNextRandomDouble());
+                break;
+            case EXPONENTIAL:
+                value = minValue - mean * Math.log(1.0 - getNextRandomDouble());
+                break;
+            case ZIPF:
+                if (zipfSampler == null) {
+                    long numberOfElements = getZipfElements();
+                    if (numberOfElements <= 0) {
+                        throw new IllegalArgumentException("Range (" + minValue + " - " + maxValue
+                                + ") too large for " + distribution + ": " + getName());
+                    }
+                    zipfSampler = new ZipfSampler(numberOfElements, exponent);
+                }
+                sink.writeLong((long) lowestScaled + zipfSampler.sample(uniform) - 1);
+                return;
+            default:
+                throw new IllegalStateException("Unexpected distribution: " + distribution);
+        }
+
+        value = Math.max(minValue, Math.min(maxValue, value));
+        double scaled = value * POWERS_OF_TEN[decimalPlaces];
+        if (Math.abs(scaled) >= LONG_LIMIT) {
+            sink.writeLiteral(BigDecimal.valueOf(value).setScale(decimalPlaces, RoundingMode.HALF_UP).toPlainString());
+        } else {
+            // rounding can leave the range when the bounds have more decimal places
+            long unscaled = (long) Math.max(lowestScaled, Math.min(highestScaled, Math.round(scaled)));
+            if (decimalPlaces == 0) {
+                sink.writeLong(unscaled);
+            } else {
+                sink.writeLiteral(decimalText, 0, formatDecimal(unscaled));
+            }
+        }
+    }
+
+    private void scaleBounds() {
+        int places = (distribution == Distribution.ZIPF) ? 0 : decimalPlaces;
+        if (!hasValues(places)) {
+            throw new IllegalArgumentException("No values with " + places + " decimal places in range ("
+                    + minValue + " - " + maxValue + "): " + getName());
+        }
+        lowestScaled = scaleBound(minValue, places, RoundingMode.CEILING);
+        highestScaled = scaleBound(maxValue, places, RoundingMode.FLOOR);
+        boundsScaled = true;
+    }
+
+    /**
+     * @param places decimal places
+     * @return true if there are values with the decimal places in the range
+     */
+    private boolean hasValues(int places) {
+        return scaleBound(minValue, places, RoundingMode.CEILING) <= scaleBound(maxValue, places, RoundingMode.FLOOR);
+    }
+
+    /**
+     * @param bound minValue or maxValue
+     * @param places decimal places
+     * @param roundingMode CEILING for the minimum, FLOOR for the maximum (so the bound stays in the range)
+     * @return the bound multiplied by 10^places, rounded to a whole number
+     */
+    private static double scaleBound(double bound, int places, RoundingMode roundingMode) {
+        // BigDecimal scales the bound as written, without binary rounding errors (ie: 0.7 scales to exactly 7)
+        return BigDecimal.valueOf(bound).movePointRight(places).setScale(0, roundingMode).doubleValue();
+    }
+
+    /**
+     * @return true if the bounds fit in a long
+     */
+    private boolean isLongRange() {
+        return minValue >= -LONG_LIMIT && maxValue < LONG_LIMIT;
+    }
+
+    /**
+     * @return number of whole numbers in the range, or <= 0 if there are too many for a long
+     */
+    private long getZipfElements() {
+        return isLongRange() ? (long) Math.floor(maxValue) - (long) Math.ceil(minValue) + 1 : -1;
+    }
+
+    /**
+     * @param low lowest value
+     * @param high highest value
+     * @return uniformly distributed value in [low, high]
+     */
+    private long getNextRandomLong(long low, long high) {
+        long range = high - low + 1;
+        if (range <= 0) {
+            // more than half of all longs (the range overflowed), so most random longs are in it
+            long value;
+            do {
+                value = getNextRandomLong();
+            } while (value < low || value > high);
+            return value;
+        }
+        // reject the random values in the incomplete last multiple of the range, so there's no modulo bias
+        long bits;
+        long value;
+        do {
+            bits = getNextRandomLong() >>> 1;
+            value = bits % range;
+        } while (bits - value + (range - 1) < 0);
+        return low + value;
+    }
+
+    /**
+     * Format a value with the decimal places, into the reusable buffer
+     * @param unscaled value, multiplied by 10^decimalPlaces
+     * @return number of characters
+     */
+    private int formatDecimal(long unscaled) {
+        boolean negative = unscaled < 0;
+        // digits are written from the end of the buffer, then moved to the start
+        int position = decimal.length;
+        long remaining = Math.abs(unscaled);
+        for (int i = 0; i < decimalPlaces; i++) {
+            decimal[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        decimal[--position] = '.';
+        do {
+            decimal[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (negative) {
+            decimal[--position] = '-';
+        }
+        int length = decimal.length - position;
+        System.arraycopy(decimal, position, decimal, 0, length);
+        return length;
+    }
+}
@@ -0,0 +1,86 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import java.util.regex.MatchResult;
+
+/**
+ * State of the record being generated, which serializers pass to each descriptor.
+ *
+ * This also tracks the cohesive identity (matching first name, last name, email) of the record.
+ * Related data is expected to be generated together, so when a cohesive field is generated again
+ * for the same identity (ie: templates without a concept of records), a new identity is started.
+ * Each generating thread uses its own context.
+ */
+public class RecordContext {
+    private final Long seed;
+    private MatchResult match;
+    private long recordNumber;
+
+    private final CohesiveIdentity identity = new CohesiveIdentity();
+    private boolean identityStarted = false;
+    private Class<?>[] identityClasses = new Class<?>[4];
+    private int identityClassCount = 0;
+
+    /**
+     * @param seed seed to derive random values from (null for unseeded)
+     */
+    public RecordContext(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Start a new record - entirely new starting point for cohesive data
+     * @param match input match the record is generated from (null when there is no input)
+     * @param recordNumber zero-based position of the record in the output
+     * @return this context
+     */
+    public RecordContext startRecord(MatchResult match, long recordNumber) {
+        this.match = match;
+        this.recordNumber = recordNumber;
+        identityStarted = false;
+        identityClassCount = 0;
+        return this;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public MatchResult getMatch() {
+        return match;
+    }
+
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Get the identity for a cohesive field, starting a new identity if needed
+     * @param descriptor cohesive field being generated - its random values seed a new identity
+     * @return identity shared with the other cohesive fields of the record
+     */
+    CohesiveIdentity getCohesiveIdentity(AbstractCohesiveDataDescriptor descriptor) {
+        Class<?> descriptorClass = descriptor.getClass();
+        if (!identityStarted || hasIdentityClass(descriptorClass)) {
+            identity.start(descriptor.getNextRandomLong());
+            identityStarted = true;
+            identityClassCount = 0;
+        }
+
+        if (identityClassCount == identityClasses.length) {
+            Class<?>[] grownIdentityClasses = new Class<?>[identityClasses.length * 2];
+            System.arraycopy(identityClasses, 0, grownIdentityClasses, 0, identityClassCount);
+            identityClasses = grownIdentityClasses;
+        }
+        identityClasses[identityClassCount++] = descriptorClass;
+        return identity;
+    }
+
+    private boolean hasIdentityClass(Class<?> descriptorClass) {
+        for (int i = 0; i < identityClassCount; i++) {
+            if (identityClasses[i] == descriptorClass) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
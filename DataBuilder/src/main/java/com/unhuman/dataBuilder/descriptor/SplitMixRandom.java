@@ -0,0 +1,74 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Unsynchronized random number generator using SplitMix64 (the algorithm behind java.util.SplittableRandom).
+ *
+ * Unlike SplittableRandom, it can be re-seeded in place, so an independent stream can be derived for
+ * every record and field without allocating.  Not thread safe - each thread needs its own instance.
+ */
+public class SplitMixRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long FIELD_GAMMA = 0xbf58476d1ce4e5b9L;
+
+    private long state;
+
+    public SplitMixRandom() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    public SplitMixRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Derive the seed of an independent stream
+     * @param seed overall seed
+     * @param recordNumber record the stream is for
+     * @param fieldKey identifies the field the stream is for
+     * @return seed for the stream
+     */
+    public static long deriveSeed(long seed, long recordNumber, long fieldKey) {
+        return mix64(mix64(seed + GOLDEN_GAMMA * (recordNumber + 1)) + FIELD_GAMMA * fieldKey);
+    }
+
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix64(state += GOLDEN_GAMMA);
+    }
+
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive: " + bound);
+        }
+        int value = mix32(state += GOLDEN_GAMMA);
+        int mask = bound - 1;
+        if ((bound & mask) == 0) {
+            return value & mask;
+        }
+        // reject values from the incomplete last range, so every result is equally likely
+        for (int unsigned = value >>> 1; unsigned + mask - (value = unsigned % bound) < 0; ) {
+            unsigned = mix32(state += GOLDEN_GAMMA) >>> 1;
+        }
+        return value;
+    }
+
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+}
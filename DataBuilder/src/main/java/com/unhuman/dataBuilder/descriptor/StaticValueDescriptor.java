@@ -2,6 +2,7 @@ package com.unhuman.dataBuilder.descriptor;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.output.ValueSink;
 
 public class StaticValueDescriptor extends AbstractEntityTypeDescriptor {
     @JsonProperty
@@ -28,7 +29,11 @@ public class StaticValueDescriptor extends AbstractEntityTypeDescriptor {
     }
 
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        return (valueIsString ? '"' : "") + value + (valueIsString ? '"' : "");
+    public void writeNextValue(ValueSink sink) {
+        if (valueIsString) {
+            sink.writeString(value);
+        } else {
+            sink.writeLiteral(value);
+        }
     }
 }
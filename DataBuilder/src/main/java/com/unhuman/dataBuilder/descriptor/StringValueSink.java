@@ -0,0 +1,54 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import com.unhuman.dataBuilder.output.ValueSink;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Captures a value as text - strings are quoted (without escaping)
+ */
+class StringValueSink implements ValueSink {
+    private final StringBuilder value = new StringBuilder();
+    private boolean isNull = false;
+
+    /**
+     * @param nullHandler how to represent a null value
+     * @return the value written
+     */
+    String getValue(AbstractEntityTypeDescriptor.NullHandler nullHandler) {
+        if (isNull) {
+            return AbstractEntityTypeDescriptor.NullHandler.AS_NULL.equals(nullHandler) ? null : "";
+        }
+        return value.toString();
+    }
+
+    @Override
+    public void writeNull() {
+        isNull = true;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        this.value.append(value);
+    }
+
+    @Override
+    public void writeLong(long value) {
+        this.value.append(value);
+    }
+
+    @Override
+    public void writeString(CharSequence value, int start, int end) {
+        this.value.append('"').append(value, start, end).append('"');
+    }
+
+    @Override
+    public void writeString(byte[] utf8, int offset, int length) {
+        value.append('"').append(new String(utf8, offset, length, StandardCharsets.UTF_8)).append('"');
+    }
+
+    @Override
+    public void writeLiteral(CharSequence value, int start, int end) {
+        this.value.append(value, start, end);
+    }
+}
@@ -2,14 +2,13 @@ package com.unhuman.dataBuilder.descriptor;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.output.ValueSink;
 
-import java.util.Random;
+import java.util.Arrays;
 
 import static com.unhuman.dataBuilder.input.PromptHelper.error;
 
 public class TextContentDescriptor extends AbstractEntityTypeDescriptor {
-    private Random random = new Random();
-
     // Define min + max words in a sentence
     private static final int MIN_SENTENCE_WORDS = 3;
     private static final int MAX_SENTENCE_WORDS = 12;
@@ -22,11 +21,30 @@ public class TextContentDescriptor extends AbstractEntityTypeDescriptor {
     private int minWords = 0;
     @JsonProperty
     private int maxWords = 0;
+    // when set, content is this many bytes (+/- the variance) rather than a number of words
+    @JsonProperty
+    private Integer targetBytes;
+    @JsonProperty
+    private int sizeVariancePercent = 0;
+
+    // reused to build content (UTF-8)
+    private byte[] content = new byte[1024];
 
     public TextContentDescriptor(String name) {
         super(name);
     }
 
+    /**
+     * @param name name of the field
+     * @param targetBytes size of the content
+     * @param sizeVariancePercent +/- variance of the size
+     */
+    TextContentDescriptor(String name, int targetBytes, int sizeVariancePercent) {
+        super(name);
+        this.targetBytes = targetBytes;
+        this.sizeVariancePercent = sizeVariancePercent;
+    }
+
     // For Jackson
     private TextContentDescriptor() {
         super();
@@ -40,6 +58,17 @@ public class TextContentDescriptor extends AbstractEntityTypeDescriptor {
                 getName() + " use proper sentence structure? (Y/n)", "^[YyNn]$", "Y");
         createSentences = checkYesNo.toLowerCase().equals("y");
 
+        if (PromptHelper.promptYesNo(getName() + " sized in bytes (rather than words)?")) {
+            while ((targetBytes = PromptHelper.promptIntegerValue("Target size (bytes)")) <= 0) {
+                error("Target size (%d) must be > 0\n", targetBytes);
+            }
+            while ((sizeVariancePercent = PromptHelper.promptIntegerValue("Size variance (+/- percent)", 0)) < 0
+                    || sizeVariancePercent > 100) {
+                error("Size variance (%d) must be 0 - 100\n", sizeVariancePercent);
+            }
+            return;
+        }
+
         while (true) {
             minWords = PromptHelper.promptIntegerValue("Minimum words in content");
             maxWords = PromptHelper.promptIntegerValue("Maximum words in content");
@@ -52,39 +81,110 @@ public class TextContentDescriptor extends AbstractEntityTypeDescriptor {
     }
 
     @Override
-    public String getNextValue(NullHandler nullHandler) {
-        int checkPercentage = random.nextInt(100);
+    public void writeNextValue(ValueSink sink) {
+        int checkPercentage = getNextRandom(100);
         boolean isEmpty = checkPercentage < percentEmpty;
         if (isEmpty) {
-            return "\"\"";
+            sink.writeString("");
+            return;
+        }
+
+        if (targetBytes != null) {
+            writeSizedContent(sink);
+            return;
         }
 
-        int wordsDesired = random.nextInt(maxWords - minWords) + minWords;
+        int wordsDesired = getNextRandom(maxWords - minWords) + minWords;
 
         boolean capitalize = true;
-        StringBuilder content = new StringBuilder();
+        int contentLength = 0;
         int sentenceLength = 0;
         int wordsInSentence = 0;
         for (int i = 0; i < wordsDesired; i++) {
             if (capitalize) {
-                sentenceLength = random.nextInt(MAX_SENTENCE_WORDS - MIN_SENTENCE_WORDS) + MIN_SENTENCE_WORDS;
+                sentenceLength = getNextRandom(MAX_SENTENCE_WORDS - MIN_SENTENCE_WORDS) + MIN_SENTENCE_WORDS;
+            }
+            // room for the word, its leading space and trailing period
+            if (contentLength + WORDS_UTF8.getMaxLength() + 2 > content.length) {
+                content = Arrays.copyOf(content, content.length * 2);
             }
             if (i > 0) {
-                content.append(' ');
+                content[contentLength++] = ' ';
             }
-            String word = WORDS[random.nextInt(WORDS.length)];
-            content.append((capitalize) ? word.substring(0, 1).toUpperCase() + word.substring(1) : word);
+            contentLength = WORDS_UTF8.copy(getNextRandom(WORDS_UTF8.size()), capitalize, content, contentLength);
             capitalize = false;
 
             // TODO: This might generate sentences of inconsistent lengths - could fix this later
             if (++wordsInSentence == sentenceLength || i == wordsDesired - 1) {
-                content.append('.');
+                content[contentLength++] = '.';
                 capitalize = true;
                 wordsInSentence = 0;
             }
         }
 
-        return '\"' + content.toString() + '\"';
+        sink.writeString(content, 0, contentLength);
+    }
+
+    /**
+     * Content of the target size, copied in bulk from the shared block of sentences
+     * (starting at a random sentence, wrapping around as needed)
+     */
+    private void writeSizedContent(ValueSink sink) {
+        int variance = (int) ((long) targetBytes * sizeVariancePercent / 100);
+        int size = Math.max(1, targetBytes - variance + getNextRandom(2 * variance + 1));
+        if (size > content.length) {
+            content = new byte[Math.max(size, content.length * 2)];
+        }
+
+        byte[] block = SentenceBlock.BYTES;
+        int blockPosition = SentenceBlock.SENTENCE_STARTS[getNextRandom(SentenceBlock.SENTENCE_STARTS.length)];
+        int contentLength = 0;
+        while (contentLength < size) {
+            int length = Math.min(size - contentLength, block.length - blockPosition);
+            System.arraycopy(block, blockPosition, content, contentLength, length);
+            contentLength += length;
+            blockPosition = 0;
+        }
+        // end on a full stop rather than part of a word (or a space)
+        content[size - 1] = '.';
+
+        sink.writeString(content, 0, size);
+    }
+
+    /**
+     * Sentences generated once (from a fixed seed) for sized content.  Words are ASCII, so content
+     * can be cut at any byte and is the same size in any output format.
+     */
+    private static class SentenceBlock {
+        private static final int SIZE = 64 * 1024;
+        private static final byte[] BYTES = new byte[SIZE];
+        private static final int[] SENTENCE_STARTS;
+
+        static {
+            SplitMixRandom random = new SplitMixRandom(SIZE);
+            int[] sentenceStarts = new int[SIZE];
+            int sentences = 0;
+            byte[] sentence = new byte[(WORDS_UTF8.getMaxLength() + 1) * MAX_SENTENCE_WORDS + 1];
+            int position = 0;
+            while (position < SIZE) {
+                int sentenceWords = random.nextInt(MAX_SENTENCE_WORDS - MIN_SENTENCE_WORDS) + MIN_SENTENCE_WORDS;
+                int length = 0;
+                for (int i = 0; i < sentenceWords; i++) {
+                    if (i > 0) {
+                        sentence[length++] = ' ';
+                    }
+                    length = WORDS_UTF8.copy(random.nextInt(WORDS_UTF8.size()), i == 0, sentence, length);
+                }
+                sentence[length++] = '.';
+                sentence[length++] = ' ';
+
+                sentenceStarts[sentences++] = position;
+                length = Math.min(length, SIZE - position);
+                System.arraycopy(sentence, 0, BYTES, position, length);
+                position += length;
+            }
+            SENTENCE_STARTS = Arrays.copyOf(sentenceStarts, sentences);
+        }
     }
 
     // From: https://www.ef.edu/english-resources/english-vocabulary/top-3000-words/
@@ -115,4 +215,7 @@ public class TextContentDescriptor extends AbstractEntityTypeDescriptor {
             "yard", "yeah", "year", "yell", "yellow", "yes", "yesterday", "yet", "yield", "you", "young", "your", "yours", "yourself", "youth",
             "zone"
     };
+
+    // WORDS pre-encoded for output (must follow WORDS)
+    static final Utf8Dictionary WORDS_UTF8 = new Utf8Dictionary(WORDS);
 }
@@ -0,0 +1,91 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import com.unhuman.dataBuilder.output.ValueSink;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed list of words, pre-encoded as UTF-8 so they can be copied straight into the output.
+ *
+ * All words are stored in one contiguous block with an offset table, along with a
+ * capitalized (first letter upper case) variant of each word.
+ */
+public class Utf8Dictionary {
+    private final byte[] bytes;
+    private final int[] offsets;
+    private final byte[] capitalizedBytes;
+    private final int[] capitalizedOffsets;
+    private final int maxLength;
+
+    public Utf8Dictionary(String[] words) {
+        String[] capitalizedWords = new String[words.length];
+        for (int i = 0; i < words.length; i++) {
+            capitalizedWords[i] = words[i].isEmpty()
+                    ? words[i] : Character.toUpperCase(words[i].charAt(0)) + words[i].substring(1);
+        }
+
+        offsets = new int[words.length + 1];
+        bytes = encode(words, offsets);
+        capitalizedOffsets = new int[words.length + 1];
+        capitalizedBytes = encode(capitalizedWords, capitalizedOffsets);
+
+        int longest = 0;
+        for (int i = 0; i < words.length; i++) {
+            longest = Math.max(longest, Math.max(offsets[i + 1] - offsets[i],
+                    capitalizedOffsets[i + 1] - capitalizedOffsets[i]));
+        }
+        maxLength = longest;
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return number of bytes in the longest word (either variant)
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Write a word as a string value
+     * @param index word to write
+     * @param sink destination
+     */
+    public void writeString(int index, ValueSink sink) {
+        sink.writeString(bytes, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    /**
+     * Copy a word's bytes - the destination must have room for getMaxLength() bytes
+     * @param index word to copy
+     * @param capitalized true for the capitalized variant
+     * @param destination array to copy into
+     * @param position where to copy the word in the destination
+     * @return position after the word
+     */
+    public int copy(int index, boolean capitalized, byte[] destination, int position) {
+        byte[] source = capitalized ? capitalizedBytes : bytes;
+        int[] sourceOffsets = capitalized ? capitalizedOffsets : offsets;
+        int length = sourceOffsets[index + 1] - sourceOffsets[index];
+        System.arraycopy(source, sourceOffsets[index], destination, position, length);
+        return position + length;
+    }
+
+    private static byte[] encode(String[] words, int[] offsets) {
+        byte[][] encodedWords = new byte[words.length][];
+        int total = 0;
+        for (int i = 0; i < words.length; i++) {
+            encodedWords[i] = words[i].getBytes(StandardCharsets.UTF_8);
+            total += encodedWords[i].length;
+        }
+
+        byte[] block = new byte[total];
+        for (int i = 0; i < words.length; i++) {
+            System.arraycopy(encodedWords[i], 0, block, offsets[i], encodedWords[i].length);
+            offsets[i + 1] = offsets[i] + encodedWords[i].length;
+        }
+        return block;
+    }
+}
@@ -0,0 +1,86 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Zipf distributed ranks (1 is the most frequent) by rejection-inversion
+ * (Hormann and Derflinger, "Rejection-inversion to generate variates from monotone discrete distributions").
+ * Constants are computed once; each sample takes a couple of uniform values on average, regardless of the
+ * number of elements.
+ */
+class ZipfSampler {
+    private final long numberOfElements;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralNumberOfElements;
+    private final double s;
+
+    /**
+     * @param numberOfElements number of ranks
+     * @param exponent skew (> 0, 1 is classic Zipf)
+     */
+    ZipfSampler(long numberOfElements, double exponent) {
+        if (numberOfElements <= 0 || !(exponent > 0)) {
+            throw new IllegalArgumentException("Zipf needs elements (" + numberOfElements
+                    + ") and an exponent (" + exponent + ") > 0");
+        }
+        this.numberOfElements = numberOfElements;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+        this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * @param uniform source of uniform values in [0, 1)
+     * @return rank from 1 to the number of elements
+     */
+    long sample(DoubleSupplier uniform) {
+        while (true) {
+            double u = hIntegralNumberOfElements + uniform.getAsDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+            double x = hIntegralInverse(u);
+            long k = (long) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > numberOfElements) {
+                k = numberOfElements;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1.0 - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1.0 - exponent);
+        if (t < -1.0) {
+            t = -1.0;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    // log(1 + x) / x, accurate near 0
+    private static double helper1(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    // (exp(x) - 1) / x, accurate near 0
+    private static double helper2(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+    }
+}
@@ -0,0 +1,89 @@
+package com.unhuman.dataBuilder.input;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits records on a delimiter character (CSV, TSV, pipe separated, ...).
+ *
+ * Fields may be quoted ("a,b"), with quotes inside quoted fields doubled (""), as in CSV.  Quoted fields
+ * can't span lines.
+ */
+public class DelimitedRecordSource extends SplitRecordSource {
+    private static final char QUOTE = '"';
+
+    private final char delimiter;
+
+    public DelimitedRecordSource(Reader reader, char delimiter, int headerLines) {
+        super(reader, headerLines);
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Open a file for splitting
+     * @param file file to read
+     * @param delimiter field delimiter
+     * @param headerLines number of lines at the start of the file to skip
+     * @param memoryMapped true to memory map the file, false to stream it
+     * @return record source over the file content
+     */
+    public static DelimitedRecordSource open(File file, char delimiter, int headerLines, boolean memoryMapped)
+            throws IOException {
+        return new DelimitedRecordSource(openReader(file, memoryMapped), delimiter, headerLines);
+    }
+
+    @Override
+    protected void split(char[] text, int start, int end, FieldMatch match) {
+        int fieldStart = start;
+        while (true) {
+            if (fieldStart < end && text[fieldStart] == QUOTE) {
+                fieldStart = splitQuoted(text, fieldStart, end, match);
+            } else {
+                int fieldEnd = fieldStart;
+                while (fieldEnd < end && text[fieldEnd] != delimiter) {
+                    fieldEnd++;
+                }
+                match.addField(fieldStart, fieldEnd, false);
+                fieldStart = fieldEnd;
+            }
+
+            if (fieldStart >= end) {
+                return;
+            }
+            // skip the delimiter
+            fieldStart++;
+            if (fieldStart == end) {
+                // trailing delimiter - last field is empty
+                match.addField(end, end, false);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return position of the delimiter following the quoted field (or end)
+     */
+    private int splitQuoted(char[] text, int quoteStart, int end, FieldMatch match) {
+        boolean escapedQuotes = false;
+        int position = quoteStart + 1;
+        while (position < end) {
+            if (text[position] == QUOTE) {
+                if (position + 1 < end && text[position + 1] == QUOTE) {
+                    escapedQuotes = true;
+                    position += 2;
+                    continue;
+                }
+                break;
+            }
+            position++;
+        }
+        match.addField(quoteStart + 1, position, escapedQuotes);
+
+        // anything between the closing quote and the delimiter is ignored
+        while (position < end && text[position] != delimiter) {
+            position++;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,167 @@
+package com.unhuman.dataBuilder.input;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Fields of a delimited / fixed-width record, presented as a MatchResult so fields are read by index like regex
+ * groups: group(0) is the whole record, group(1) the first field, and so on.  Fields past the end of a (short)
+ * record are null.  Offsets are relative to the start of the record.  Fields can also be looked up by the
+ * names in the data input's header.
+ *
+ * The fields reference the source's buffer, so a FieldMatch from a source is only valid until its next find().
+ */
+public class FieldMatch implements InputMatch {
+    private char[] text;
+    private int recordStart;
+    private int recordEnd;
+    private int count;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    // fields containing doubled (escaped) quotes
+    private boolean[] escaped = new boolean[16];
+    private Map<String, Integer> names = Collections.emptyMap();
+    // the record, indexed by offset within the record (created on demand)
+    private CharBuffer recordText;
+
+    FieldMatch() {
+    }
+
+    private FieldMatch(FieldMatch match) {
+        text = Arrays.copyOfRange(match.text, match.recordStart, match.recordEnd);
+        recordStart = 0;
+        recordEnd = text.length;
+        count = match.count;
+        starts = Arrays.copyOf(match.starts, count);
+        ends = Arrays.copyOf(match.ends, count);
+        escaped = Arrays.copyOf(match.escaped, count);
+        names = match.names;
+    }
+
+    void startRecord(char[] text, int start, int end) {
+        this.text = text;
+        this.recordStart = start;
+        this.recordEnd = end;
+        this.count = 0;
+        this.recordText = null;
+    }
+
+    void setNames(Map<String, Integer> names) {
+        this.names = names;
+    }
+
+    void addField(int start, int end, boolean escapedQuotes) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            escaped = Arrays.copyOf(escaped, count * 2);
+        }
+        starts[count] = start - recordStart;
+        ends[count] = end - recordStart;
+        escaped[count] = escapedQuotes;
+        count++;
+    }
+
+    /**
+     * @return a copy of this match that remains valid after the source moves on
+     */
+    FieldMatch snapshot() {
+        return new FieldMatch(this);
+    }
+
+    @Override
+    public CharSequence getText(int group) {
+        if (group > 0 && group <= count && escaped[group - 1]) {
+            // quotes need to be unescaped
+            return null;
+        }
+        if (recordText == null) {
+            recordText = CharBuffer.wrap(text, recordStart, recordEnd - recordStart);
+        }
+        return recordText;
+    }
+
+    @Override
+    public CharSequence getText(String name) {
+        return getText(getGroupIndex(name));
+    }
+
+    @Override
+    public int start(String name) {
+        return start(getGroupIndex(name));
+    }
+
+    @Override
+    public int end(String name) {
+        return end(getGroupIndex(name));
+    }
+
+    @Override
+    public String group(String name) {
+        return group(getGroupIndex(name));
+    }
+
+    private int getGroupIndex(String name) {
+        Integer group = names.get(name);
+        if (group == null) {
+            throw new IllegalArgumentException("No field named " + name);
+        }
+        return group;
+    }
+
+    @Override
+    public int start() {
+        return 0;
+    }
+
+    @Override
+    public int start(int group) {
+        checkGroup(group);
+        return (group == 0) ? 0 : (group <= count) ? starts[group - 1] : -1;
+    }
+
+    @Override
+    public int end() {
+        return recordEnd - recordStart;
+    }
+
+    @Override
+    public int end(int group) {
+        checkGroup(group);
+        return (group == 0) ? end() : (group <= count) ? ends[group - 1] : -1;
+    }
+
+    @Override
+    public String group() {
+        return new String(text, recordStart, recordEnd - recordStart);
+    }
+
+    @Override
+    public String group(int group) {
+        checkGroup(group);
+        if (group == 0) {
+            return group();
+        }
+        if (group > count) {
+            return null;
+        }
+        String value = new String(text, recordStart + starts[group - 1], ends[group - 1] - starts[group - 1]);
+        return escaped[group - 1] ? value.replace("\"\"", "\"") : value;
+    }
+
+    /**
+     * @return number of fields in the record
+     */
+    @Override
+    public int groupCount() {
+        return count;
+    }
+
+    private void checkGroup(int group) {
+        if (group < 0) {
+            throw new IndexOutOfBoundsException("No group " + group);
+        }
+    }
+}
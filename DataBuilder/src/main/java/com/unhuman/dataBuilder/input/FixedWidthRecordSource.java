@@ -0,0 +1,52 @@
+package com.unhuman.dataBuilder.input;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits records into fields of fixed widths (in characters), trimming the spaces padding each field.
+ * Fields starting past the end of a (short) record are null.
+ */
+public class FixedWidthRecordSource extends SplitRecordSource {
+    private final int[] fieldWidths;
+
+    public FixedWidthRecordSource(Reader reader, int[] fieldWidths, int headerLines) {
+        super(reader, headerLines);
+        this.fieldWidths = fieldWidths.clone();
+    }
+
+    /**
+     * Open a file for splitting
+     * @param file file to read
+     * @param fieldWidths width of each field
+     * @param headerLines number of lines at the start of the file to skip
+     * @param memoryMapped true to memory map the file, false to stream it
+     * @return record source over the file content
+     */
+    public static FixedWidthRecordSource open(File file, int[] fieldWidths, int headerLines, boolean memoryMapped)
+            throws IOException {
+        return new FixedWidthRecordSource(openReader(file, memoryMapped), fieldWidths, headerLines);
+    }
+
+    @Override
+    protected void split(char[] text, int start, int end, FieldMatch match) {
+        int fieldStart = start;
+        for (int width: fieldWidths) {
+            if (fieldStart >= end) {
+                return;
+            }
+            int fieldEnd = Math.min(fieldStart + width, end);
+            int trimmedStart = fieldStart;
+            int trimmedEnd = fieldEnd;
+            while (trimmedStart < trimmedEnd && text[trimmedStart] == ' ') {
+                trimmedStart++;
+            }
+            while (trimmedEnd > trimmedStart && text[trimmedEnd - 1] == ' ') {
+                trimmedEnd--;
+            }
+            match.addField(trimmedStart, trimmedEnd, false);
+            fieldStart = fieldEnd;
+        }
+    }
+}
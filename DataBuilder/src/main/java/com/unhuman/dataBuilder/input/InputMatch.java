@@ -0,0 +1,43 @@
+package com.unhuman.dataBuilder.input;
+
+import java.util.regex.MatchResult;
+
+/**
+ * Match from the data input that can expose its groups without copying them into Strings.
+ */
+public interface InputMatch extends MatchResult {
+    /**
+     * @param group group number
+     * @return text the group can be read from at [start(group), end(group)) - null when the group's value
+     * isn't contained verbatim in the input (use group(group) instead)
+     */
+    CharSequence getText(int group);
+
+    /**
+     * @param name name of a capture group (or header field)
+     * @return text the group can be read from at [start(name), end(name)) - null when the group's value
+     * isn't contained verbatim in the input (use group(name) instead)
+     */
+    CharSequence getText(String name);
+
+    /**
+     * @param name name of a capture group (or header field)
+     * @return start of the group, or -1 if it didn't match
+     * @throws IllegalArgumentException if there is no group with the name
+     */
+    int start(String name);
+
+    /**
+     * @param name name of a capture group (or header field)
+     * @return end of the group, or -1 if it didn't match
+     * @throws IllegalArgumentException if there is no group with the name
+     */
+    int end(String name);
+
+    /**
+     * @param name name of a capture group (or header field)
+     * @return value of the group, or null if it didn't match
+     * @throws IllegalArgumentException if there is no group with the name
+     */
+    String group(String name);
+}
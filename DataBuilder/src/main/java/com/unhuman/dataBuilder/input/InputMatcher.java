@@ -0,0 +1,255 @@
+package com.unhuman.dataBuilder.input;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds regex matches in a Reader incrementally, keeping only a bounded window of the input in memory.
+ * Alternately, matches can be found directly in a CharSequence (such as a MappedCharSequence).
+ *
+ * Matches are reported against the internal buffer, so the MatchResult from match() is only valid
+ * until the next call to find().  Groups can be read from the buffer without copying (see InputMatch).
+ */
+public class InputMatcher implements RecordSource {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    // Longest match (or unmatched content still being scanned) that will be retained waiting for more input -
+    // unmatched content older than this is dropped
+    static final int MAX_WINDOW_SIZE = 16 * 1024 * 1024;
+
+    private final Reader reader;
+    private final MappedCharSequence mapped;
+    private final Matcher matcher;
+    private final InputMatch match = new BufferMatch();
+    // names of the named group values kept for snapshots
+    private String[] groupNames = new String[0];
+    private char[] buffer;
+    private CharSequence text;
+    private int position = 0;
+    private int limit;
+    private boolean endOfInput;
+    // unmatched content was dropped from the start of the buffer, so a match starting there may have lost its start
+    private boolean skipped = false;
+
+    public InputMatcher(Reader reader, Pattern pattern) {
+        this.reader = reader;
+        this.mapped = null;
+        this.buffer = new char[INITIAL_BUFFER_SIZE];
+        this.text = CharBuffer.wrap(buffer, 0, 0);
+        this.limit = 0;
+        this.endOfInput = false;
+        this.matcher = pattern.matcher(text);
+        this.matcher.useTransparentBounds(true);
+        this.matcher.useAnchoringBounds(false);
+    }
+
+    public InputMatcher(CharSequence text, Pattern pattern) {
+        this.reader = null;
+        this.buffer = null;
+        if (text instanceof MappedCharSequence) {
+            // match over what's been indexed so far, indexing more as matching moves forward
+            this.mapped = (MappedCharSequence) text;
+            this.text = mapped.indexedChars();
+            this.limit = 0;
+            this.endOfInput = false;
+        } else {
+            this.mapped = null;
+            this.text = text;
+            this.limit = text.length();
+            this.endOfInput = true;
+        }
+        this.matcher = pattern.matcher(text);
+        this.matcher.useTransparentBounds(true);
+        this.matcher.useAnchoringBounds(false);
+    }
+
+    /**
+     * Open a file for matching
+     * @param file file to read
+     * @param pattern pattern to find
+     * @param memoryMapped true to memory map the file, false to stream it
+     * @return matcher over the file content
+     */
+    public static InputMatcher open(File file, Pattern pattern, boolean memoryMapped) throws IOException {
+        return memoryMapped
+                ? new InputMatcher(MappedCharSequence.map(file.toPath()), pattern)
+                : new InputMatcher(Files.newBufferedReader(file.toPath()), pattern);
+    }
+
+    /**
+     * @param names named capture groups that snapshots keep (ie: the ones descriptors read)
+     * @return this matcher
+     */
+    public InputMatcher withNamedGroups(Collection<String> names) {
+        groupNames = names.toArray(new String[0]);
+        return this;
+    }
+
+    /**
+     * Find the next match in the input
+     * @return true if a match was found, false when the input is exhausted
+     */
+    @Override
+    public boolean find() throws IOException {
+        while (true) {
+            if (position <= limit) {
+                matcher.reset(text);
+                matcher.region(position, limit);
+                boolean found = matcher.find();
+
+                // A match touching the end of the buffer might change with more input, so only accept it when done
+                if (found && (endOfInput || !matcher.hitEnd())) {
+                    if (skipped && matcher.start() == 0) {
+                        throw new IOException("Match longer than " + MAX_WINDOW_SIZE
+                                + " characters - memory map the input to match it");
+                    }
+                    skipped = false;
+                    // Mirror Matcher.find() - an empty match must not be found again at the same position
+                    position = (matcher.end() == matcher.start()) ? matcher.end() + 1 : matcher.end();
+                    return true;
+                }
+            }
+
+            if (endOfInput) {
+                return false;
+            }
+            readMore();
+        }
+    }
+
+    /**
+     * @return the current match - only valid until the next call to find()
+     */
+    @Override
+    public MatchResult match() {
+        return match;
+    }
+
+    /**
+     * @return a copy of the current match (with the named groups from withNamedGroups) that remains valid after
+     * subsequent calls to find()
+     */
+    @Override
+    public MatchResult snapshot() {
+        return new MatchSnapshot(matcher, text, groupNames);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    private void readMore() throws IOException {
+        if (mapped != null) {
+            // at least double what's being rescanned, so scanning a long stretch without matches stays linear
+            try {
+                endOfInput = !mapped.indexMore(Math.max(INITIAL_BUFFER_SIZE, limit - Math.min(position, limit)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            limit = text.length();
+            return;
+        }
+
+        // Nothing before position can be part of a future match, so drop it
+        int discard = Math.min(position, limit);
+        if (limit - discard >= MAX_WINDOW_SIZE) {
+            // Nothing matched in the whole window - drop the older half, keeping the rest for a match in progress
+            discard = limit - MAX_WINDOW_SIZE / 2;
+            skipped = true;
+        }
+        if (discard > 0) {
+            System.arraycopy(buffer, discard, buffer, 0, limit - discard);
+            limit -= discard;
+            position = Math.max(position - discard, 0);
+        }
+
+        if (limit == buffer.length) {
+            char[] grownBuffer = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, grownBuffer, 0, limit);
+            buffer = grownBuffer;
+        }
+
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+        text = CharBuffer.wrap(buffer, 0, limit);
+    }
+
+    /**
+     * The current match, with groups read from the buffer
+     */
+    private class BufferMatch implements InputMatch {
+        @Override
+        public CharSequence getText(int group) {
+            return text;
+        }
+
+        @Override
+        public CharSequence getText(String name) {
+            return text;
+        }
+
+        @Override
+        public int start(String name) {
+            return matcher.start(name);
+        }
+
+        @Override
+        public int end(String name) {
+            return matcher.end(name);
+        }
+
+        @Override
+        public String group(String name) {
+            return matcher.group(name);
+        }
+
+        @Override
+        public int start() {
+            return matcher.start();
+        }
+
+        @Override
+        public int start(int group) {
+            return matcher.start(group);
+        }
+
+        @Override
+        public int end() {
+            return matcher.end();
+        }
+
+        @Override
+        public int end(int group) {
+            return matcher.end(group);
+        }
+
+        @Override
+        public String group() {
+            return matcher.group();
+        }
+
+        @Override
+        public String group(int group) {
+            return matcher.group(group);
+        }
+
+        @Override
+        public int groupCount() {
+            return matcher.groupCount();
+        }
+    }
+}
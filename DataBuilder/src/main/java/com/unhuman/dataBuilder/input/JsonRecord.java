@@ -0,0 +1,89 @@
+package com.unhuman.dataBuilder.input;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.regex.MatchResult;
+
+/**
+ * A JSON object read from the data input, buffered as tokens so it can be replayed while writing its mutation.
+ * As a MatchResult, group(0) is the object's JSON - there are no other groups.  Immutable, so it stays valid
+ * after the source moves on.
+ */
+public class JsonRecord implements MatchResult {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final TokenBuffer tokens;
+    private String json;
+
+    JsonRecord(TokenBuffer tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * @return new parser over the object, positioned before its START_OBJECT
+     */
+    public JsonParser createParser() {
+        return tokens.asParser();
+    }
+
+    @Override
+    public int start() {
+        return 0;
+    }
+
+    @Override
+    public int start(int group) {
+        checkGroup(group);
+        return 0;
+    }
+
+    @Override
+    public int end() {
+        return group().length();
+    }
+
+    @Override
+    public int end(int group) {
+        checkGroup(group);
+        return end();
+    }
+
+    @Override
+    public synchronized String group() {
+        if (json == null) {
+            StringWriter writer = new StringWriter();
+            try (JsonParser parser = createParser();
+                 JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            json = writer.toString();
+        }
+        return json;
+    }
+
+    @Override
+    public String group(int group) {
+        checkGroup(group);
+        return group();
+    }
+
+    @Override
+    public int groupCount() {
+        return 0;
+    }
+
+    private void checkGroup(int group) {
+        if (group != 0) {
+            throw new IndexOutOfBoundsException("No group " + group + " in JSON records");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.unhuman.dataBuilder.input;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.regex.MatchResult;
+
+/**
+ * Reads the objects of a JSON array, or of JSON Lines (any sequence of root level objects), one at a time
+ * with the Jackson streaming parser.  Only the current object is held in memory.
+ */
+public class JsonRecordSource implements RecordSource {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private boolean started = false;
+    private boolean inArray = false;
+    private JsonRecord record;
+
+    public JsonRecordSource(InputStream input) throws IOException {
+        this.parser = JSON_FACTORY.createParser(input);
+    }
+
+    /**
+     * Open a file for reading
+     * @param file JSON array / JSON Lines file
+     * @return record source over the file content
+     */
+    public static JsonRecordSource open(File file) throws IOException {
+        return new JsonRecordSource(new BufferedInputStream(Files.newInputStream(file.toPath()), 64 * 1024));
+    }
+
+    @Override
+    public boolean find() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (!started) {
+            started = true;
+            if (token == JsonToken.START_ARRAY) {
+                inArray = true;
+                token = parser.nextToken();
+            }
+        }
+
+        if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+            record = null;
+            return false;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("JSON records must be objects, found " + token + " at "
+                    + parser.getCurrentLocation());
+        }
+
+        TokenBuffer tokens = new TokenBuffer(parser);
+        tokens.copyCurrentStructure(parser);
+        record = new JsonRecord(tokens);
+        return true;
+    }
+
+    @Override
+    public MatchResult match() {
+        return record;
+    }
+
+    @Override
+    public MatchResult snapshot() {
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,319 @@
+package com.unhuman.dataBuilder.input;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Presents a memory-mapped ASCII / UTF-8 file as a CharSequence, decoding characters only as they are accessed.
+ *
+ * The file is indexed as it's read: a byte offset for every CHECKPOINT_INTERVAL chars plus a cursor, so the
+ * mostly-forward access of a regex scan decodes each character about once, and leading ASCII content is addressed
+ * directly.  Reading (or matching through indexedChars()) only indexes as far as it gets, while length() indexes
+ * the whole file.  Files are limited to Integer.MAX_VALUE chars.
+ * Malformed UTF-8 bytes decode to U+FFFD.  Instances are not thread safe.
+ */
+public class MappedCharSequence implements CharSequence {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final int CHECKPOINT_BITS = 12;
+    private static final int CHECKPOINT_INTERVAL = 1 << CHECKPOINT_BITS;
+    private static final long ASCII_MASK = 0x8080808080808080L;
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final ByteBuffer[] segments;
+    private final long byteLength;
+    private final CharSequence indexedChars = new IndexedChars();
+    // byte offset (shifted left one) of the code point holding each checkpoint char, low bit set if it's a low surrogate
+    private long[] checkpoints = new long[16];
+    // chars indexed so far, and the byte offset they end at
+    private int indexedLength = 0;
+    private long indexedOffset = 0;
+    // leading chars that are all ASCII, so each char is the byte at its index
+    private int asciiLength = 0;
+
+    // forward decoding cursor - the char index of the code point starting at cursorOffset
+    private int cursorIndex = 0;
+    private long cursorOffset = 0;
+    private int decodedLength;
+
+    private MappedCharSequence(ByteBuffer[] segments, long byteLength) {
+        this.segments = segments;
+        this.byteLength = byteLength;
+    }
+
+    /**
+     * Memory map a file
+     * @param path file to map
+     * @return the file's content as characters
+     */
+    public static MappedCharSequence map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+            // mappings remain valid once the channel is closed
+            return new MappedCharSequence(segments, size);
+        }
+    }
+
+    /**
+     * @return the chars indexed so far, as a CharSequence whose length grows as more are indexed (see indexMore)
+     */
+    public CharSequence indexedChars() {
+        return indexedChars;
+    }
+
+    /**
+     * Index more of the file
+     * @param chars number of chars to index (fewer at the end of the file)
+     * @return true if more chars were indexed, false if the whole file was already indexed
+     * @throws UncheckedIOException if the file has more than Integer.MAX_VALUE chars
+     */
+    public boolean indexMore(int chars) {
+        int previousLength = indexedLength;
+        indexTo((long) indexedLength + chars);
+        return indexedLength > previousLength;
+    }
+
+    /**
+     * @return reader of the file from the start, indexing only as far as it's read
+     */
+    public Reader reader() {
+        return new Reader() {
+            private int position = 0;
+
+            @Override
+            public int read(char[] destination, int offset, int length) {
+                if (position + length > indexedLength) {
+                    indexTo((long) position + length);
+                }
+                if (position >= indexedLength) {
+                    return -1;
+                }
+                int end = Math.min(position + length, indexedLength);
+                for (int i = position; i < end; i++) {
+                    destination[offset++] = charAt(i);
+                }
+                int read = end - position;
+                position = end;
+                return read;
+            }
+
+            @Override
+            public void close() {
+                // Nothing - mappings are released when garbage collected
+            }
+        };
+    }
+
+    /**
+     * @return number of chars in the file (indexing all of it)
+     */
+    @Override
+    public int length() {
+        indexTo(Long.MAX_VALUE);
+        return indexedLength;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < asciiLength && index >= 0) {
+            return (char) byteAt(index);
+        }
+        if (index >= indexedLength) {
+            indexTo((long) index + 1);
+        }
+        if (index < 0 || index >= indexedLength) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + indexedLength);
+        }
+
+        if (index < cursorIndex || index - cursorIndex >= CHECKPOINT_INTERVAL) {
+            long checkpoint = checkpoints[index >>> CHECKPOINT_BITS];
+            cursorOffset = checkpoint >>> 1;
+            cursorIndex = (index & -CHECKPOINT_INTERVAL) - (int) (checkpoint & 1);
+        }
+        while (true) {
+            int codePoint = decode(cursorOffset);
+            int chars = Character.charCount(codePoint);
+            if (index < cursorIndex + chars) {
+                if (chars == 1) {
+                    return (char) codePoint;
+                }
+                return (index == cursorIndex) ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+            }
+            cursorIndex += chars;
+            cursorOffset += decodedLength;
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (end > indexedLength) {
+            indexTo(end);
+        }
+        if (start < 0 || end > indexedLength || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + indexedLength);
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = charAt(i);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+
+    private int byteAt(long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & (SEGMENT_SIZE - 1))) & 0xFF;
+    }
+
+    /**
+     * @return true if the Long.BYTES bytes at offset (within one segment) are all ASCII
+     */
+    private boolean isAsciiLong(long offset) {
+        int segmentOffset = (int) (offset & (SEGMENT_SIZE - 1));
+        ByteBuffer segment = segments[(int) (offset >>> SEGMENT_BITS)];
+        return segmentOffset + Long.BYTES <= segment.limit() && (segment.getLong(segmentOffset) & ASCII_MASK) == 0;
+    }
+
+    /**
+     * Count chars from the end of the index until there are targetChars (or the file ends), recording
+     * checkpoints along the way
+     */
+    private void indexTo(long targetChars) {
+        long chars = indexedLength;
+        long offset = indexedOffset;
+        boolean ascii = asciiLength == indexedLength;
+        while (offset < byteLength && chars < targetChars) {
+            int checkpointPosition = (int) (chars & (CHECKPOINT_INTERVAL - 1));
+            if (checkpointPosition == 0) {
+                addCheckpoint(chars, offset << 1);
+            }
+            if (checkpointPosition <= CHECKPOINT_INTERVAL - Long.BYTES && isAsciiLong(offset)) {
+                // a run of ASCII, without passing a checkpoint
+                chars += Long.BYTES;
+                offset += Long.BYTES;
+            } else {
+                ascii &= byteAt(offset) < 0x80;
+                int codePoint = decode(offset);
+                if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                    ++chars;
+                    // a checkpoint landing on the low surrogate points back to the start of its code point
+                    if ((chars & (CHECKPOINT_INTERVAL - 1)) == 0) {
+                        addCheckpoint(chars, (offset << 1) | 1);
+                    }
+                }
+                ++chars;
+                offset += decodedLength;
+            }
+            if (chars > Integer.MAX_VALUE) {
+                throw new UncheckedIOException(new IOException("File too large to memory map as characters "
+                        + "(more than " + Integer.MAX_VALUE + " chars): " + byteLength + " bytes"));
+            }
+        }
+        indexedLength = (int) chars;
+        indexedOffset = offset;
+        if (ascii) {
+            asciiLength = indexedLength;
+        }
+    }
+
+    private void addCheckpoint(long chars, long checkpoint) {
+        int checkpointIndex = (int) (chars >>> CHECKPOINT_BITS);
+        if (checkpointIndex == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+        }
+        checkpoints[checkpointIndex] = checkpoint;
+    }
+
+    /**
+     * Decode the code point at an offset, leaving its encoded size in decodedLength
+     */
+    private int decode(long offset) {
+        int lead = byteAt(offset);
+        decodedLength = 1;
+        if (lead < 0x80) {
+            return lead;
+        }
+
+        int continuationBytes;
+        int codePoint;
+        int minimum;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            continuationBytes = 1;
+            codePoint = lead & 0x1F;
+            minimum = 0x80;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            continuationBytes = 2;
+            codePoint = lead & 0x0F;
+            minimum = 0x800;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            continuationBytes = 3;
+            codePoint = lead & 0x07;
+            minimum = Character.MIN_SUPPLEMENTARY_CODE_POINT;
+        } else {
+            return REPLACEMENT;
+        }
+
+        if (offset + continuationBytes >= byteLength) {
+            return REPLACEMENT;
+        }
+        for (int i = 1; i <= continuationBytes; i++) {
+            int continuation = byteAt(offset + i);
+            if ((continuation & 0xC0) != 0x80) {
+                return REPLACEMENT;
+            }
+            codePoint = (codePoint << 6) | (continuation & 0x3F);
+        }
+        if (codePoint < minimum || codePoint > Character.MAX_CODE_POINT
+                || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            return REPLACEMENT;
+        }
+
+        decodedLength = continuationBytes + 1;
+        return codePoint;
+    }
+
+    /**
+     * The chars indexed so far
+     */
+    private class IndexedChars implements CharSequence {
+        @Override
+        public int length() {
+            return indexedLength;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index >= indexedLength) {
+                throw new IndexOutOfBoundsException("index " + index + ", indexed length " + indexedLength);
+            }
+            return MappedCharSequence.this.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (end > indexedLength) {
+                throw new IndexOutOfBoundsException("end " + end + ", indexed length " + indexedLength);
+            }
+            return MappedCharSequence.this.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, indexedLength).toString();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.unhuman.dataBuilder.input;
+
+import java.util.regex.Matcher;
+
+/**
+ * Immutable copy of a match, which remains usable after the matcher it came from has moved on.
+ *
+ * Only the text spanned by the match's groups is retained, and only the named groups asked for can be looked up
+ * by name.
+ */
+public class MatchSnapshot implements InputMatch {
+    private static final int NO_GROUP = -2;
+
+    private final String text;
+    private final int offset;
+    private final String[] names;
+    private final CharSequence offsetText = new OffsetText();
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] namedStarts;
+    private final int[] namedEnds;
+
+    MatchSnapshot(Matcher match, CharSequence input, String[] names) {
+        this.names = names;
+        namedStarts = new int[names.length];
+        namedEnds = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            try {
+                namedStarts[i] = match.start(names[i]);
+                namedEnds[i] = match.end(names[i]);
+            } catch (IllegalArgumentException e) {
+                // not a group of the pattern
+                namedStarts[i] = NO_GROUP;
+            }
+        }
+
+        int groupCount = match.groupCount();
+        starts = new int[groupCount + 1];
+        ends = new int[groupCount + 1];
+
+        // groups in lookarounds can fall outside of group 0, so capture everything any group covers
+        int spanStart = match.start();
+        int spanEnd = match.end();
+        for (int i = 0; i <= groupCount; i++) {
+            starts[i] = match.start(i);
+            ends[i] = match.end(i);
+            if (starts[i] >= 0) {
+                spanStart = Math.min(spanStart, starts[i]);
+                spanEnd = Math.max(spanEnd, ends[i]);
+            }
+        }
+        text = input.subSequence(spanStart, spanEnd).toString();
+        offset = spanStart;
+    }
+
+    @Override
+    public CharSequence getText(int group) {
+        return offsetText;
+    }
+
+    @Override
+    public CharSequence getText(String name) {
+        return offsetText;
+    }
+
+    @Override
+    public int start(String name) {
+        return namedStarts[getNamedGroup(name)];
+    }
+
+    @Override
+    public int end(String name) {
+        return namedEnds[getNamedGroup(name)];
+    }
+
+    @Override
+    public String group(String name) {
+        int group = getNamedGroup(name);
+        return (namedStarts[group] < 0) ? null
+                : text.substring(namedStarts[group] - offset, namedEnds[group] - offset);
+    }
+
+    @Override
+    public int start() {
+        return start(0);
+    }
+
+    @Override
+    public int start(int group) {
+        checkGroup(group);
+        return starts[group];
+    }
+
+    @Override
+    public int end() {
+        return end(0);
+    }
+
+    @Override
+    public int end(int group) {
+        checkGroup(group);
+        return ends[group];
+    }
+
+    @Override
+    public String group() {
+        return group(0);
+    }
+
+    @Override
+    public String group(int group) {
+        checkGroup(group);
+        return (starts[group] < 0) ? null : text.substring(starts[group] - offset, ends[group] - offset);
+    }
+
+    @Override
+    public int groupCount() {
+        return starts.length - 1;
+    }
+
+    /**
+     * The retained text, indexed like the original input
+     */
+    private class OffsetText implements CharSequence {
+        @Override
+        public int length() {
+            return offset + text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(index - offset);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.substring(start - offset, end - offset);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    private int getNamedGroup(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name) && namedStarts[i] != NO_GROUP) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No group named " + name);
+    }
+
+    private void checkGroup(int group) {
+        if (group < 0 || group >= starts.length) {
+            throw new IndexOutOfBoundsException("No group " + group);
+        }
+    }
+}
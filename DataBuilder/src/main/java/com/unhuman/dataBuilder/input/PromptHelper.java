@@ -1,37 +1,97 @@
 package com.unhuman.dataBuilder.input;
 
-import java.util.Scanner;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class PromptHelper {
     private static final int NUMBER_SELECT_SPACES = 5;
-    private static final int STREAM_FLUSH_MS = 25;
 
     public enum StartingIndex { ZERO, ONE }
 
-    public static String promptForValue(String item, String defaultValue) {
-        String input = null;
-        Scanner scanner = new Scanner(System.in);
-        while (true) {
-            try {
-                if (defaultValue != null) {
-                    output("Enter %s (default: %s): ", item, defaultValue);
-                } else {
-                    output("Enter %s: ", item);
-                }
-                input = scanner.nextLine();
-                if (input == null || input.isBlank()) {
-                    return defaultValue;
-                }
+    // Console of the current thread when it's redirected (ie: server jobs), which can't be prompted
+    private static final ThreadLocal<Console> REDIRECTED_CONSOLE = new ThreadLocal<>();
+    // Scripted answers for the current thread's prompts (one per line), instead of System.in
+    private static final ThreadLocal<BufferedReader> ANSWERS = new ThreadLocal<>();
+    // Shared, so input read ahead for one prompt isn't lost to the next
+    private static BufferedReader standardInput;
 
-                return input;
-            } catch (Exception e) {
-                error("Invalid value: %s\n", input);
-            }
+    private static class Console {
+        private final PrintStream output;
+        private final PrintStream error;
+
+        private Console(PrintStream output, PrintStream error) {
+            this.output = output;
+            this.error = error;
         }
     }
 
+    /**
+     * Redirect output and errors of the current thread - prompting then fails, rather than waiting on System.in
+     * @param output destination for output
+     * @param error destination for errors
+     */
+    public static void redirectConsole(PrintStream output, PrintStream error) {
+        REDIRECTED_CONSOLE.set(new Console(output, error));
+    }
+
+    /**
+     * Return the current thread to System.out / System.err / System.in
+     */
+    public static void resetConsole() {
+        REDIRECTED_CONSOLE.remove();
+    }
+
+    /**
+     * @return output of the current thread
+     */
+    public static PrintStream getOutput() {
+        Console console = REDIRECTED_CONSOLE.get();
+        return (console != null) ? console.output : System.out;
+    }
+
+    /**
+     * @return error output of the current thread
+     */
+    public static PrintStream getError() {
+        Console console = REDIRECTED_CONSOLE.get();
+        return (console != null) ? console.error : System.err;
+    }
+
+    /**
+     * Answer the current thread's prompts from a script (ie: an answers file), one answer per line, in order -
+     * an empty line accepts the default.  Prompting fails when the answers run out, rather than waiting.
+     * @param answers answers (the caller closes them)
+     */
+    public static void useAnswers(BufferedReader answers) {
+        ANSWERS.set(answers);
+    }
+
+    /**
+     * Return the current thread's prompts to System.in
+     */
+    public static void clearAnswers() {
+        ANSWERS.remove();
+    }
+
+    public static String promptForValue(String item, String defaultValue) {
+        if (defaultValue != null) {
+            output("Enter %s (default: %s): ", item, defaultValue);
+        } else {
+            output("Enter %s: ", item);
+        }
+        String input = readAnswer(item);
+        if (input.isBlank()) {
+            return defaultValue;
+        }
+
+        return input;
+    }
+
     public static String promptForValue(String item) {
         while (true) {
             String value = promptForValue(item, null);
@@ -59,6 +119,21 @@ public class PromptHelper {
         }
     }
 
+    public static double promptDecimalValue(String item) {
+        while (true) {
+            String checkDecimal = promptForValue(item);
+            try {
+                double value = Double.parseDouble(checkDecimal);
+                if (Double.isFinite(value)) {
+                    return value;
+                }
+            } catch (Exception e) {
+                // handled below
+            }
+            error("Invalid value: %s\n", checkDecimal);
+        }
+    }
+
     public static int promptPercentage(String name, Integer defaultValue) {
         while (true) {
             int percentage = promptIntegerValue("percentage for " + name, defaultValue);
@@ -96,8 +171,6 @@ public class PromptHelper {
 
     public static String promptForEnumValue(String instructions, StartingIndex startingIndex,
                                             Enum[] acceptableValues) {
-        Scanner scanner = new Scanner(System.in);
-
         while (true) {
             output("Select %s:\n", instructions);
             for (int i = startingIndex.ordinal(); i < acceptableValues.length + startingIndex.ordinal(); i++) {
@@ -108,7 +181,7 @@ public class PromptHelper {
             }
             output("Selection: ");
 
-            String input = scanner.nextLine();
+            String input = readAnswer(instructions);
 
             for (Enum acceptableValue: acceptableValues) {
                 String acceptableValueString = acceptableValue.name();
@@ -136,24 +209,65 @@ public class PromptHelper {
     }
 
 
+    // Each stream is flushed before writing to the other, so output and errors stay in order on a terminal
     public static void output(String format, Object... args) {
+        Console console = REDIRECTED_CONSOLE.get();
+        if (console != null) {
+            console.output.printf(format, args);
+            return;
+        }
+        System.err.flush();
         System.out.printf(format, args);
         System.out.flush();
-        waitForFlush();
     }
 
     public static void error(String format, Object... args) {
+        Console console = REDIRECTED_CONSOLE.get();
+        if (console != null) {
+            console.error.printf(format, args);
+            return;
+        }
+        System.out.flush();
         System.err.printf(format, args);
         System.err.flush();
-        waitForFlush();
     }
 
-    private static void waitForFlush() {
-        // This seems to make sure that the data flushes properly
+    /**
+     * Read the answer to a prompt - from the current thread's answers, or System.in
+     * @param item what's being prompted for
+     * @return answer
+     * @throws IllegalStateException if there's no answer (end of answers / input, or no console)
+     */
+    private static String readAnswer(String item) {
         try {
-            Thread.sleep(STREAM_FLUSH_MS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            BufferedReader answers = ANSWERS.get();
+            if (answers != null) {
+                String answer = answers.readLine();
+                if (answer == null) {
+                    throw new IllegalStateException("No answer for " + item + " in the answers file");
+                }
+                // the answer follows the prompt, like typed input
+                output("%s\n", answer);
+                return answer;
+            }
+
+            if (REDIRECTED_CONSOLE.get() != null) {
+                throw new IllegalStateException("Can't prompt for " + item + " (no console)");
+            }
+            String answer = getStandardInput().readLine();
+            if (answer == null) {
+                throw new IllegalStateException("No input for " + item);
+            }
+            return answer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Problem reading answer for " + item + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static synchronized BufferedReader getStandardInput() {
+        if (standardInput == null) {
+            standardInput = new BufferedReader(new InputStreamReader(System.in));
         }
+        return standardInput;
     }
 }
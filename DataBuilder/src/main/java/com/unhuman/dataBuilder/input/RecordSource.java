@@ -0,0 +1,26 @@
+package com.unhuman.dataBuilder.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.regex.MatchResult;
+
+/**
+ * Source of the records to be generated
+ */
+public interface RecordSource extends Closeable {
+    /**
+     * Advance to the next record
+     * @return true if there is another record, false when the source is exhausted
+     */
+    boolean find() throws IOException;
+
+    /**
+     * @return input content for the current record (null when there is none) - only valid until the next find()
+     */
+    MatchResult match();
+
+    /**
+     * @return input content for the current record that remains valid after subsequent calls to find()
+     */
+    MatchResult snapshot();
+}
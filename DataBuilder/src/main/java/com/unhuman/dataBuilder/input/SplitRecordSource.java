@@ -0,0 +1,153 @@
+package com.unhuman.dataBuilder.input;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.MatchResult;
+
+/**
+ * Reads line-based records (\n or \r\n terminated) and splits each into fields without regex matching.
+ * Blank lines are skipped.  Subclasses decide how a line is split into fields.  Fields are named by the last
+ * header line, if there is one.
+ *
+ * Like InputMatcher, only a bounded window of the input is held in memory, and match() is only valid until
+ * the next call to find().
+ */
+public abstract class SplitRecordSource implements RecordSource {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    // Longest record that will be retained waiting for the rest of its line
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    private final Reader reader;
+    private final FieldMatch match = new FieldMatch();
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private boolean endOfInput = false;
+    private int linesToSkip;
+
+    /**
+     * @param reader input
+     * @param headerLines number of lines at the start of the input to skip
+     */
+    protected SplitRecordSource(Reader reader, int headerLines) {
+        this.reader = reader;
+        this.linesToSkip = headerLines;
+    }
+
+    /**
+     * Open a file for reading
+     * @param file file to read
+     * @param memoryMapped true to memory map the file, false to stream it
+     * @return reader over the file content
+     */
+    protected static Reader openReader(File file, boolean memoryMapped) throws IOException {
+        return memoryMapped
+                ? MappedCharSequence.map(file.toPath()).reader()
+                : Files.newBufferedReader(file.toPath());
+    }
+
+    /**
+     * Split a record into fields
+     * @param text buffer containing the record
+     * @param start start of the record (inclusive)
+     * @param end end of the record (exclusive, without the line terminator)
+     * @param match destination for the fields (already started for the record)
+     */
+    protected abstract void split(char[] text, int start, int end, FieldMatch match);
+
+    @Override
+    public boolean find() throws IOException {
+        while (true) {
+            int lineEnd = indexOfNewline(position, limit);
+            if (lineEnd < 0 && endOfInput) {
+                // last line doesn't need a line terminator
+                lineEnd = limit;
+            }
+            if (lineEnd >= 0) {
+                int start = position;
+                int end = (lineEnd > start && buffer[lineEnd - 1] == '\r') ? lineEnd - 1 : lineEnd;
+                position = Math.min(lineEnd + 1, limit);
+                if (linesToSkip > 0) {
+                    if (--linesToSkip == 0) {
+                        readNames(start, end);
+                    }
+                } else if (start < end) {
+                    match.startRecord(buffer, start, end);
+                    split(buffer, start, end, match);
+                    return true;
+                }
+                if (lineEnd == limit) {
+                    // end of input
+                    return false;
+                }
+                continue;
+            }
+            readMore();
+        }
+    }
+
+    @Override
+    public MatchResult match() {
+        return match;
+    }
+
+    @Override
+    public MatchResult snapshot() {
+        return match.snapshot();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readNames(int start, int end) {
+        match.startRecord(buffer, start, end);
+        split(buffer, start, end, match);
+        Map<String, Integer> names = new HashMap<>();
+        for (int field = match.groupCount(); field > 0; field--) {
+            // the first of duplicate names wins
+            names.put(match.group(field), field);
+        }
+        match.setNames(names);
+    }
+
+    private int indexOfNewline(int from, int to) {
+        char[] text = buffer;
+        for (int i = from; i < to; i++) {
+            if (text[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void readMore() throws IOException {
+        // Everything before position has been consumed
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+
+        if (limit == buffer.length) {
+            if (buffer.length >= MAX_RECORD_SIZE) {
+                throw new IOException("Record longer than " + MAX_RECORD_SIZE + " characters");
+            }
+            char[] grownBuffer = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, grownBuffer, 0, limit);
+            buffer = grownBuffer;
+        }
+
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+}
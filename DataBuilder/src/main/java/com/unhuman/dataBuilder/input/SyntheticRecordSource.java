@@ -0,0 +1,38 @@
+package com.unhuman.dataBuilder.input;
+
+import java.util.regex.MatchResult;
+
+/**
+ * Produces a fixed number of records without any input content, for purely generated data
+ */
+public class SyntheticRecordSource implements RecordSource {
+    private long remainingRecords;
+
+    public SyntheticRecordSource(long records) {
+        this.remainingRecords = records;
+    }
+
+    @Override
+    public boolean find() {
+        if (remainingRecords <= 0) {
+            return false;
+        }
+        --remainingRecords;
+        return true;
+    }
+
+    @Override
+    public MatchResult match() {
+        return null;
+    }
+
+    @Override
+    public MatchResult snapshot() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        // Nothing
+    }
+}
@@ -0,0 +1,36 @@
+package com.unhuman.dataBuilder.output;
+
+/**
+ * Value sink for an output format, writing into an output buffer.
+ *
+ * Serializers write the structure of the format (separators, field names, etc.) directly to the buffer.
+ */
+public abstract class BufferedValueSink implements ValueSink {
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+
+    protected final OutputBuffer output;
+
+    protected BufferedValueSink(OutputBuffer output) {
+        this.output = output;
+    }
+
+    public OutputBuffer getOutput() {
+        return output;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        output.write(value ? TRUE : FALSE, 0, value ? TRUE.length : FALSE.length);
+    }
+
+    @Override
+    public void writeLong(long value) {
+        output.writeLong(value);
+    }
+
+    @Override
+    public void writeLiteral(CharSequence value, int start, int end) {
+        output.writeChars(value, start, end);
+    }
+}
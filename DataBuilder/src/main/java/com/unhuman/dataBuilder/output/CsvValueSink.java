@@ -0,0 +1,44 @@
+package com.unhuman.dataBuilder.output;
+
+/**
+ * Writes values as CSV fields - strings are quoted, with embedded quotes doubled, and nulls are empty
+ */
+public class CsvValueSink extends BufferedValueSink {
+    public CsvValueSink(OutputBuffer output) {
+        super(output);
+    }
+
+    @Override
+    public void writeNull() {
+    }
+
+    @Override
+    public void writeString(CharSequence value, int start, int end) {
+        output.write('"');
+        int runStart = start;
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == '"') {
+                output.writeChars(value, runStart, i + 1);
+                runStart = i;
+            }
+        }
+        output.writeChars(value, runStart, end);
+        output.write('"');
+    }
+
+    @Override
+    public void writeString(byte[] utf8, int offset, int length) {
+        output.write('"');
+        int runStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            // quote can't appear within a multi-byte UTF-8 sequence
+            if (utf8[i] == '"') {
+                output.write(utf8, runStart, i + 1 - runStart);
+                runStart = i;
+            }
+        }
+        output.write(utf8, runStart, end - runStart);
+        output.write('"');
+    }
+}
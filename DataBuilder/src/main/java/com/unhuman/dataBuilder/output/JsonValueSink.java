@@ -0,0 +1,251 @@
+package com.unhuman.dataBuilder.output;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Writes values as the fields of JSON objects, streamed through a Jackson JsonGenerator.
+ *
+ * Each object is written as a root level value, so serializers control what separates them
+ * (ie: array elements or JSON Lines).  Field names are written when the field's value is,
+ * so null fields can be left out entirely.
+ */
+public class JsonValueSink extends BufferedValueSink {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final JsonGenerator generator;
+    private final boolean serializeNullValues;
+    private SerializableString fieldName;
+    // generator values are written to - the output's, or the capture generator's
+    private JsonGenerator writer;
+    // values of captured fields (see captureFields), written as root level values to capturedValues
+    private JsonGenerator captureGenerator;
+    private final OutputBuffer capturedValues = new OutputBuffer(256);
+    private final List<String> capturedNames = new ArrayList<>();
+    private int[] capturedStarts = new int[16];
+    private boolean[] capturedWritten = new boolean[16];
+    private char[] chars = new char[256];
+    // strings are encoded here first - the generator's char output doesn't keep surrogate pairs intact
+    private final OutputBuffer utf8 = new OutputBuffer(256);
+
+    /**
+     * @param output buffer to write to
+     * @param serializeNullValues true to write null fields, false to leave them out
+     */
+    public JsonValueSink(OutputBuffer output, boolean serializeNullValues) {
+        super(output);
+        this.serializeNullValues = serializeNullValues;
+        try {
+            generator = JSON_FACTORY.createGenerator(output);
+            generator.setRootValueSeparator(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writer = generator;
+    }
+
+    public void startObject() {
+        try {
+            generator.writeStartObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * End the current object, flushing it to the output buffer
+     */
+    public void endObject() {
+        try {
+            generator.writeEndObject();
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Capture the fields written from here on rather than writing them, so copyFields can write them in place of
+     * the copied object's fields
+     */
+    public void captureFields() {
+        try {
+            if (captureGenerator == null) {
+                captureGenerator = JSON_FACTORY.createGenerator(capturedValues);
+                captureGenerator.setRootValueSeparator(null);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        capturedValues.reset();
+        capturedNames.clear();
+        writer = captureGenerator;
+    }
+
+    /**
+     * Copy the fields of an object from the parser, writing any captured fields (see captureFields) in place of
+     * the fields they replace and the rest after them
+     * @param parser parser positioned before the object's START_OBJECT
+     * @param replaced fields that are replaced, by name - they're written from the captured fields, if captured
+     */
+    public void copyFields(JsonParser parser, Predicate<String> replaced) {
+        try {
+            int captured = endCapture();
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                if (!replaced.test(name)) {
+                    // copies the field name and its value
+                    generator.copyCurrentStructure(parser);
+                    continue;
+                }
+                parser.nextToken();
+                parser.skipChildren();
+                int index = capturedNames.indexOf(name);
+                if (index >= 0 && !capturedWritten[index]) {
+                    writeCaptured(index);
+                }
+            }
+            for (int index = 0; index < captured; index++) {
+                if (!capturedWritten[index]) {
+                    writeCaptured(index);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Start a field, which is written along with its value
+     * @param name name of the field (precomputed, so its encoding is cached)
+     */
+    public void startField(SerializableString name) {
+        fieldName = name;
+    }
+
+    @Override
+    public void writeNull() {
+        if (serializeNullValues) {
+            try {
+                writeFieldName();
+                writer.writeNull();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        try {
+            writeFieldName();
+            writer.writeBoolean(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void writeLong(long value) {
+        try {
+            writeFieldName();
+            writer.writeNumber(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void writeLiteral(CharSequence value, int start, int end) {
+        try {
+            writeFieldName();
+            writer.writeRawValue(toChars(value, start, end), 0, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void writeString(CharSequence value, int start, int end) {
+        try {
+            writeFieldName();
+            utf8.reset();
+            utf8.writeChars(value, start, end);
+            writer.writeUTF8String(utf8.array(), 0, utf8.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void writeString(byte[] utf8, int offset, int length) {
+        try {
+            writeFieldName();
+            writer.writeUTF8String(utf8, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeFieldName() throws IOException {
+        if (fieldName != null) {
+            if (writer == captureGenerator) {
+                writer.flush();
+                int index = capturedNames.size();
+                if (index == capturedStarts.length) {
+                    capturedStarts = Arrays.copyOf(capturedStarts, index * 2);
+                    capturedWritten = Arrays.copyOf(capturedWritten, index * 2);
+                }
+                capturedNames.add(fieldName.getValue());
+                capturedStarts[index] = capturedValues.size();
+                capturedWritten[index] = false;
+            } else {
+                writer.writeFieldName(fieldName);
+            }
+            fieldName = null;
+        }
+    }
+
+    /**
+     * Stop capturing fields
+     * @return number of fields captured
+     */
+    private int endCapture() throws IOException {
+        if (writer == captureGenerator) {
+            captureGenerator.flush();
+            writer = generator;
+        }
+        return capturedNames.size();
+    }
+
+    private void writeCaptured(int index) throws IOException {
+        int start = capturedStarts[index];
+        int end = (index + 1 < capturedNames.size()) ? capturedStarts[index + 1] : capturedValues.size();
+        generator.writeFieldName(capturedNames.get(index));
+        generator.writeRawValue(new String(capturedValues.array(), start, end - start, StandardCharsets.UTF_8));
+        capturedWritten[index] = true;
+    }
+
+    private char[] toChars(CharSequence value, int start, int end) {
+        if (end - start > chars.length) {
+            chars = new char[Math.max(end - start, chars.length * 2)];
+        }
+        for (int i = start; i < end; i++) {
+            chars[i - start] = value.charAt(i);
+        }
+        return chars;
+    }
+}
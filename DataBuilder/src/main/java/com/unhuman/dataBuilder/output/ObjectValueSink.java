@@ -0,0 +1,66 @@
+package com.unhuman.dataBuilder.output;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Captures a value as a Java object - null, Boolean, Long, String, or for literals (ie: numbers from the input)
+ * Long, BigDecimal (keeping the digits as written) or Boolean when they parse as one (otherwise String)
+ */
+public class ObjectValueSink implements ValueSink {
+    private Object value;
+
+    /**
+     * @return the value written (and clear it for the next value)
+     */
+    public Object takeValue() {
+        Object taken = value;
+        value = null;
+        return taken;
+    }
+
+    @Override
+    public void writeNull() {
+        value = null;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        this.value = value;
+    }
+
+    @Override
+    public void writeLong(long value) {
+        this.value = value;
+    }
+
+    @Override
+    public void writeString(CharSequence value, int start, int end) {
+        this.value = value.subSequence(start, end).toString();
+    }
+
+    @Override
+    public void writeString(byte[] utf8, int offset, int length) {
+        value = new String(utf8, offset, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void writeLiteral(CharSequence value, int start, int end) {
+        String literal = value.subSequence(start, end).toString().trim();
+        if (literal.equals("true") || literal.equals("false")) {
+            this.value = Boolean.valueOf(literal);
+            return;
+        }
+        try {
+            this.value = Long.valueOf(literal);
+            return;
+        } catch (NumberFormatException e) {
+            // not a whole number
+        }
+        try {
+            this.value = new BigDecimal(literal);
+        } catch (NumberFormatException e) {
+            this.value = literal;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.unhuman.dataBuilder.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable buffer of UTF-8 encoded output, which records are rendered into before being written out.
+ *
+ * Characters and numbers are encoded directly into the buffer, so rendering creates no intermediate Strings.
+ * Not thread safe.
+ */
+public class OutputBuffer extends OutputStream {
+    private static final byte[] LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] bytes;
+    private int size = 0;
+
+    public OutputBuffer() {
+        this(8192);
+    }
+
+    public OutputBuffer(int initialCapacity) {
+        bytes = new byte[initialCapacity];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, bytes, size, len);
+        size += len;
+    }
+
+    public OutputBuffer writeChar(char c) {
+        if (c < 0x80) {
+            write(c);
+        } else {
+            writeChars(String.valueOf(c), 0, 1);
+        }
+        return this;
+    }
+
+    public OutputBuffer writeChars(CharSequence value) {
+        return writeChars(value, 0, value.length());
+    }
+
+    /**
+     * Write characters, UTF-8 encoded
+     * @param value characters to write
+     * @param start first character to write
+     * @param end character after the last character to write
+     * @return this buffer
+     */
+    public OutputBuffer writeChars(CharSequence value, int start, int end) {
+        // worst case is 3 bytes per char (surrogate pairs are 4 bytes for 2 chars)
+        ensureCapacity((end - start) * 3);
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes[size++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[size++] = (byte) (0xC0 | (c >> 6));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogates can't be encoded
+                bytes[size++] = '?';
+            } else {
+                bytes[size++] = (byte) (0xE0 | (c >> 12));
+                bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    public OutputBuffer writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            write(LONG_MIN_VALUE, 0, LONG_MIN_VALUE.length);
+            return this;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            bytes[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        size += digits;
+        for (int i = size - 1; i >= size - digits; i--) {
+            bytes[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the buffer's backing array, valid up to size()
+     */
+    byte[] array() {
+        return bytes;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Write the buffered output to a stream and empty the buffer
+     * @param output stream to write to
+     */
+    public void drainTo(OutputStream output) throws IOException {
+        output.write(bytes, 0, size);
+        size = 0;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+}
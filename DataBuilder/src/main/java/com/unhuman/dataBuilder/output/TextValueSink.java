@@ -0,0 +1,34 @@
+package com.unhuman.dataBuilder.output;
+
+/**
+ * Writes values into free-form text (token replacement templates).
+ *
+ * The template decides the surrounding format, so strings are quoted but not escaped
+ * and nulls are written as null.
+ */
+public class TextValueSink extends BufferedValueSink {
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+
+    public TextValueSink(OutputBuffer output) {
+        super(output);
+    }
+
+    @Override
+    public void writeNull() {
+        output.write(NULL, 0, NULL.length);
+    }
+
+    @Override
+    public void writeString(CharSequence value, int start, int end) {
+        output.write('"');
+        output.writeChars(value, start, end);
+        output.write('"');
+    }
+
+    @Override
+    public void writeString(byte[] utf8, int offset, int length) {
+        output.write('"');
+        output.write(utf8, offset, length);
+        output.write('"');
+    }
+}
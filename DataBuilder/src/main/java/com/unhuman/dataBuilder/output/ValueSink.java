@@ -0,0 +1,51 @@
+package com.unhuman.dataBuilder.output;
+
+/**
+ * Destination for the values descriptors generate.
+ *
+ * Descriptors write typed values and the output format decides how they are represented,
+ * including any quoting and escaping.
+ */
+public interface ValueSink {
+    void writeNull();
+
+    void writeBoolean(boolean value);
+
+    void writeLong(long value);
+
+    default void writeInt(int value) {
+        writeLong(value);
+    }
+
+    default void writeString(CharSequence value) {
+        writeString(value, 0, value.length());
+    }
+
+    /**
+     * Write a range of characters as a string value
+     * @param value characters to write
+     * @param start first character to write
+     * @param end character after the last character to write
+     */
+    void writeString(CharSequence value, int start, int end);
+
+    /**
+     * Write pre-encoded bytes as a string value
+     * @param utf8 UTF-8 encoded string
+     * @param offset first byte to write
+     * @param length number of bytes to write
+     */
+    void writeString(byte[] utf8, int offset, int length);
+
+    /**
+     * Write a value as-is (ie: numbers from the input), without any quoting
+     * @param value characters to write
+     * @param start first character to write
+     * @param end character after the last character to write
+     */
+    void writeLiteral(CharSequence value, int start, int end);
+
+    default void writeLiteral(CharSequence value) {
+        writeLiteral(value, 0, value.length());
+    }
+}
@@ -0,0 +1,243 @@
+package com.unhuman.dataBuilder.template;
+
+import com.unhuman.dataBuilder.GenerationMetrics;
+import com.unhuman.dataBuilder.GenerationPlan;
+import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
+import com.unhuman.dataBuilder.descriptor.RecordContext;
+import com.unhuman.dataBuilder.output.OutputBuffer;
+import com.unhuman.dataBuilder.output.TextValueSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Token replacement template, compiled once into pre-encoded literal segments and descriptor slots.
+ * A compiled template is immutable, so it can be rendered by any number of threads or runs
+ * (each with its own descriptors bound from the plan).
+ *
+ * $[name] tokens are replaced by the named descriptor's values.  Content between $[#repeat N] and
+ * $[/repeat] is rendered N times, with each repetition generated as a new record (ids advance and
+ * cohesive data restarts).  Each stretch of content outside of repeat blocks is also generated as a record.
+ * Records are numbered by one counter through the whole template, each taking as many numbers as the most
+ * times one token is used in it, so ids never repeat (even for a token used more than once in a record).
+ */
+public class CompiledTemplate {
+    // $[name] tokens to treat inputfile as replacements
+    public static final Pattern TOKEN_PATTERN = Pattern.compile("\\$\\[(.*?)\\]");
+    private static final Pattern REPEAT_START_PATTERN = Pattern.compile("#repeat\\s+(\\d+)");
+    private static final String REPEAT_END = "/repeat";
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private interface Segment {
+        void render(AbstractEntityTypeDescriptor[] descriptors, TextValueSink sink);
+    }
+
+    private static class LiteralSegment implements Segment {
+        private final byte[] utf8;
+
+        private LiteralSegment(byte[] utf8) {
+            this.utf8 = utf8;
+        }
+
+        @Override
+        public void render(AbstractEntityTypeDescriptor[] descriptors, TextValueSink sink) {
+            sink.getOutput().write(utf8, 0, utf8.length);
+        }
+    }
+
+    private static class SlotSegment implements Segment {
+        private final int slot;
+
+        private SlotSegment(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public void render(AbstractEntityTypeDescriptor[] descriptors, TextValueSink sink) {
+            descriptors[slot].writeNextValue(sink);
+        }
+    }
+
+    /**
+     * Content rendered as count records - a repeat block, or a stretch of content outside of them (count 1)
+     */
+    private static class RepeatSegment implements Segment {
+        private final int count;
+        private final List<Segment> body = new ArrayList<>();
+        private final TreeMap<Integer, Integer> slotUses = new TreeMap<>();
+        private Segment[] bodySegments;
+        private int[] bodySlots;
+        private int recordNumbers;
+
+        private RepeatSegment(int count) {
+            this.count = count;
+        }
+
+        private void addSlot(int slot) {
+            body.add(new SlotSegment(slot));
+            slotUses.merge(slot, 1, Integer::sum);
+        }
+
+        private void close() {
+            bodySegments = body.toArray(new Segment[0]);
+            bodySlots = slotUses.keySet().stream().mapToInt(Integer::intValue).toArray();
+            recordNumbers = slotUses.values().stream().mapToInt(Integer::intValue).max().orElse(1);
+        }
+
+        @Override
+        public void render(AbstractEntityTypeDescriptor[] descriptors, TextValueSink sink) {
+            for (Segment segment: bodySegments) {
+                segment.render(descriptors, sink);
+            }
+        }
+    }
+
+    private final RepeatSegment[] segments;
+
+    private CompiledTemplate(List<RepeatSegment> segments) {
+        this.segments = segments.toArray(new RepeatSegment[0]);
+    }
+
+    /**
+     * @param token content of a $[...] token
+     * @return true if the token is template syntax rather than a replacement
+     */
+    public static boolean isDirective(String token) {
+        return REPEAT_START_PATTERN.matcher(token).matches() || REPEAT_END.equals(token);
+    }
+
+    /**
+     * Compile a template
+     * @param template template content
+     * @param plan plan with a field for each token
+     * @return compiled template
+     * @throws IllegalArgumentException for unknown tokens or mismatched repeat blocks
+     */
+    public static CompiledTemplate compile(CharSequence template, GenerationPlan plan) {
+        List<RepeatSegment> segments = new ArrayList<>();
+        // the repeat block, or stretch of content outside of them, being compiled
+        RepeatSegment current = null;
+        boolean inRepeat = false;
+
+        Matcher tokenMatcher = TOKEN_PATTERN.matcher(template);
+        int literalStart = 0;
+        while (tokenMatcher.find()) {
+            if (current == null && literalStart < tokenMatcher.start()) {
+                current = addSegment(segments, 1);
+            }
+            addLiteral(current, template, literalStart, tokenMatcher.start());
+            literalStart = tokenMatcher.end();
+
+            String token = tokenMatcher.group(1);
+            Matcher repeatMatcher = REPEAT_START_PATTERN.matcher(token);
+            if (repeatMatcher.matches()) {
+                if (inRepeat) {
+                    throw new IllegalArgumentException("Nested $[#repeat] blocks are not supported");
+                }
+                close(current);
+                current = addSegment(segments, Integer.parseInt(repeatMatcher.group(1)));
+                inRepeat = true;
+            } else if (REPEAT_END.equals(token)) {
+                if (!inRepeat) {
+                    throw new IllegalArgumentException("$[/repeat] without $[#repeat]");
+                }
+                current.close();
+                current = null;
+                inRepeat = false;
+            } else {
+                int slot = plan.getSlot(token);
+                if (slot == GenerationPlan.NO_SLOT) {
+                    throw new IllegalArgumentException("No setting for token: $[" + token + "]");
+                }
+                if (current == null) {
+                    current = addSegment(segments, 1);
+                }
+                current.addSlot(slot);
+            }
+        }
+        if (inRepeat) {
+            throw new IllegalArgumentException("$[#repeat] without $[/repeat]");
+        }
+        if (current == null && literalStart < template.length()) {
+            current = addSegment(segments, 1);
+        }
+        addLiteral(current, template, literalStart, template.length());
+        close(current);
+
+        return new CompiledTemplate(segments);
+    }
+
+    private static RepeatSegment addSegment(List<RepeatSegment> segments, int count) {
+        RepeatSegment segment = new RepeatSegment(count);
+        segments.add(segment);
+        return segment;
+    }
+
+    private static void close(RepeatSegment segment) {
+        if (segment != null) {
+            segment.close();
+        }
+    }
+
+    /**
+     * Render the template
+     * @param output destination
+     * @param descriptors descriptors bound from the plan the template was compiled with
+     * @param seed seed to reproducibly generate data from (null for unseeded)
+     */
+    public void render(OutputStream output, AbstractEntityTypeDescriptor[] descriptors, Long seed)
+            throws IOException {
+        render(output, descriptors, seed, null);
+    }
+
+    /**
+     * Render the template
+     * @param output destination
+     * @param descriptors descriptors bound from the plan the template was compiled with
+     * @param seed seed to reproducibly generate data from (null for unseeded)
+     * @param metrics metrics to count the records rendered (null for none)
+     */
+    public void render(OutputStream output, AbstractEntityTypeDescriptor[] descriptors, Long seed,
+                       GenerationMetrics metrics) throws IOException {
+        TextValueSink sink = new TextValueSink(new OutputBuffer(OUTPUT_BUFFER_SIZE + 8192));
+        RecordContext context = new RecordContext(seed);
+        long recordNumber = 0;
+        long records = 0;
+        long reportedRecords = 0;
+
+        for (RepeatSegment segment: segments) {
+            for (int i = 0; i < segment.count; i++) {
+                context.startRecord(null, recordNumber);
+                recordNumber += segment.recordNumbers;
+                records++;
+                for (int slot: segment.bodySlots) {
+                    descriptors[slot].setIterationState(context);
+                }
+                segment.render(descriptors, sink);
+                if (sink.getOutput().size() >= OUTPUT_BUFFER_SIZE) {
+                    sink.getOutput().drainTo(output);
+                    if (metrics != null) {
+                        metrics.addRecords(records - reportedRecords);
+                        reportedRecords = records;
+                    }
+                }
+            }
+        }
+        sink.getOutput().drainTo(output);
+        if (metrics != null) {
+            metrics.addRecords(records - reportedRecords);
+        }
+    }
+
+    private static void addLiteral(RepeatSegment segment, CharSequence template, int start, int end) {
+        if (start < end) {
+            segment.body.add(new LiteralSegment(new OutputBuffer(end - start).writeChars(template, start, end).toByteArray()));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.unhuman.dataBuilder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Settings and generated data input shared by the JMH benchmarks.
+ *
+ * The settings (benchmark/settings.json) use every descriptor type, and extract from input lines of
+ * the form "user1,1,word".  The dictionary field samples benchmark/words.txt.
+ */
+final class BenchmarkData {
+    private static final String RESOURCE_DIRECTORY = "/benchmark";
+    private static final String SETTINGS_RESOURCE = RESOURCE_DIRECTORY + "/settings.json";
+    private static final String[] WORDS = { "alpha", "bravo", "charlie", "delta", "echo", "foxtrot" };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return a new copy of the benchmark settings (descriptors hold per-record state)
+     */
+    static SettingsConfig loadSettings() {
+        try (InputStream settings = BenchmarkData.class.getResourceAsStream(SETTINGS_RESOURCE)) {
+            SettingsConfig settingsConfig = new DataBuilder().getInheritanceObjectMapper()
+                    .readValue(settings, SettingsConfig.class);
+            // the dictionary is a file next to the settings
+            File directory = new File(BenchmarkData.class.getResource(RESOURCE_DIRECTORY).toURI());
+            settingsConfig.getSettings().forEach(descriptor -> descriptor.resolveFiles(directory));
+            return settingsConfig;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Problem reading benchmark settings", e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Benchmark resources aren't files", e);
+        }
+    }
+
+    static Pattern getPattern(SettingsConfig settingsConfig) {
+        return Pattern.compile(settingsConfig.getRegex());
+    }
+
+    /**
+     * @param records number of records
+     * @return data input with the given number of records
+     */
+    static String createInput(int records) {
+        StringBuilder input = new StringBuilder(records * 24);
+        for (int i = 0; i < records; i++) {
+            appendRecord(input, i);
+        }
+        return input.toString();
+    }
+
+    /**
+     * Write a data input file
+     * @param file destination
+     * @param size approximate size of the file in bytes
+     */
+    static void writeInputFile(Path file, long size) throws IOException {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            StringBuilder record = new StringBuilder(64);
+            long written = 0;
+            for (int i = 0; written < size; i++) {
+                record.setLength(0);
+                appendRecord(record, i);
+                writer.append(record);
+                written += record.length();
+            }
+        }
+    }
+
+    /**
+     * @param size size with an optional KB / MB / GB suffix
+     * @return size in bytes
+     */
+    static long parseSize(String size) {
+        String units = size.replaceAll("[0-9]", "").toUpperCase();
+        long value = Long.parseLong(size.substring(0, size.length() - units.length()));
+        switch (units) {
+            case "":
+                return value;
+            case "KB":
+                return value << 10;
+            case "MB":
+                return value << 20;
+            case "GB":
+                return value << 30;
+            default:
+                throw new IllegalArgumentException("Invalid size: " + size);
+        }
+    }
+
+    private static void appendRecord(StringBuilder destination, int i) {
+        destination.append("user").append(i).append(',').append(i % 1000).append(',')
+                .append(WORDS[i % WORDS.length]).append('\n');
+    }
+}
@@ -0,0 +1,44 @@
+package com.unhuman.dataBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class ConfigCacheTest {
+    private static final String SETTINGS = "{\"seed\": %d, \"settings\": [\"java.util.ArrayList\", []]}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEditedFileReplacesEntry() throws Exception {
+        ConfigCache configCache = new ConfigCache();
+        ObjectMapper objectMapper = DataBuilder.createInheritanceObjectMapper();
+        File settingsFile = folder.newFile("settings.json");
+        for (int i = 10; i < 20; i++) {
+            Files.writeString(settingsFile.toPath(), String.format(SETTINGS, i));
+            settingsFile.setLastModified(i * 1000L);
+            // read through a different (non-canonical) path each time
+            File path = new File(folder.getRoot(), "../" + folder.getRoot().getName() + "/settings.json");
+            Assert.assertEquals(Long.valueOf(i), configCache.readSettings(path, objectMapper).getSeed());
+        }
+        Assert.assertEquals(1, configCache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        ConfigCache configCache = new ConfigCache();
+        ObjectMapper objectMapper = DataBuilder.createInheritanceObjectMapper();
+        for (int i = 0; i < ConfigCache.MAX_ENTRIES * 2; i++) {
+            File settingsFile = folder.newFile("settings" + i + ".json");
+            Files.writeString(settingsFile.toPath(), String.format(SETTINGS, i));
+            configCache.readSettings(settingsFile, objectMapper);
+        }
+        Assert.assertEquals(ConfigCache.MAX_ENTRIES, configCache.size());
+    }
+}
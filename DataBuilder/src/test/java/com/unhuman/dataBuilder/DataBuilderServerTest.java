@@ -0,0 +1,116 @@
+package com.unhuman.dataBuilder;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+public class DataBuilderServerTest {
+    private static final String SETTINGS = "{\"settings\": [\"java.util.ArrayList\", ["
+            + "[\"com.unhuman.dataBuilder.descriptor.IdDescriptor\", {\"name\": \"id\", \"idType\": \"INCREMENTING\", \"incrementingStartingId\": 1,"
+            + " \"incrementingCurrentIdIsString\": false}]]]}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DataBuilderServer server;
+
+    @Before
+    public void setup() throws Exception {
+        server = new DataBuilderServer(0, 2, folder.newFolder("tokens"));
+        server.start();
+    }
+
+    @After
+    public void teardown() {
+        server.stop();
+    }
+
+    @Test
+    public void testJobsWithRelativeFiles() throws Exception {
+        Files.writeString(folder.newFile("settings.json").toPath(), SETTINGS);
+        for (int i = 0; i < 2; i++) {
+            String output = "out" + i + ".csv";
+            HttpURLConnection connection = post("-i\nsettings.json\n-r\n3\n" + output + "\n");
+            Assert.assertEquals(200, connection.getResponseCode());
+            Assert.assertEquals("0", connection.getHeaderField(DataBuilderServer.STATUS_HEADER));
+            Assert.assertEquals(List.of("id", "1", "2", "3"),
+                    Files.readAllLines(new File(folder.getRoot(), output).toPath()));
+        }
+    }
+
+    @Test
+    public void testDictionaryRelativeToJob() throws Exception {
+        Files.writeString(folder.newFile("words.txt").toPath(), "only\n");
+        Files.writeString(folder.newFile("settings.json").toPath(), "{\"settings\": [\"java.util.ArrayList\", ["
+                + "[\"com.unhuman.dataBuilder.descriptor.DictionaryDescriptor\", {\"name\": \"word\","
+                + " \"file\": \"words.txt\"}]]]}");
+        HttpURLConnection connection = post("-i\nsettings.json\n-r\n2\nwords.csv\n");
+        Assert.assertEquals("0", connection.getHeaderField(DataBuilderServer.STATUS_HEADER));
+        Assert.assertEquals(List.of("word", "\"only\"", "\"only\""),
+                Files.readAllLines(new File(folder.getRoot(), "words.csv").toPath()));
+    }
+
+    @Test
+    public void testJobsCantPrompt() throws Exception {
+        Files.writeString(folder.newFile("settings.json").toPath(), SETTINGS);
+        HttpURLConnection connection = post("-i\nsettings.json\n-r\n3\nout.json\n");
+        Assert.assertEquals("-1", connection.getHeaderField(DataBuilderServer.STATUS_HEADER));
+        String transcript = new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertTrue(transcript, transcript.contains("Can't prompt"));
+    }
+
+    @Test
+    public void testRejectsRequestsWithoutToken() throws Exception {
+        Assert.assertEquals(401, post("", DataBuilderServer.CONTENT_TYPE, "wrong").getResponseCode());
+        // web pages can send text/plain without a preflight
+        Assert.assertEquals(415, post("", "text/plain", token()).getResponseCode());
+
+        // HttpURLConnection won't send an Origin, so this one uses HttpClient
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://"
+                        + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort()
+                        + DataBuilderServer.GENERATE_PATH))
+                .header("Content-Type", DataBuilderServer.CONTENT_TYPE)
+                .header(DataBuilderServer.TOKEN_HEADER, token())
+                .header("Origin", "http://example.com")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        Assert.assertEquals(403, HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    private HttpURLConnection post(String commandLine) throws Exception {
+        return post(commandLine, DataBuilderServer.CONTENT_TYPE, token());
+    }
+
+    private String token() throws Exception {
+        return Files.readString(server.getTokenFile());
+    }
+
+    private HttpURLConnection post(String commandLine, String contentType, String token) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http",
+                InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), DataBuilderServer.GENERATE_PATH)
+                .openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", contentType);
+        connection.setRequestProperty(DataBuilderServer.TOKEN_HEADER, token);
+        connection.setRequestProperty(DataBuilderServer.DIRECTORY_HEADER, folder.getRoot().getPath());
+        connection.getOutputStream().write(commandLine.getBytes(StandardCharsets.UTF_8));
+        return connection;
+    }
+}
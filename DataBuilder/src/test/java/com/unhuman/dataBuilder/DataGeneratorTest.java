@@ -0,0 +1,103 @@
+package com.unhuman.dataBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unhuman.dataBuilder.input.JsonRecordSource;
+import com.unhuman.dataBuilder.input.SyntheticRecordSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class DataGeneratorTest {
+    private static final String DESCRIPTOR = "com.unhuman.dataBuilder.descriptor.";
+    private static final String SETTINGS = "{\"seed\": 11, \"settings\": [\"java.util.ArrayList\", ["
+            + "[\"" + DESCRIPTOR + "IdDescriptor\", {\"name\": \"id\", \"idType\": \"INCREMENTING\","
+            + " \"incrementingStartingId\": 1, \"incrementingCurrentIdIsString\": false}],"
+            + "[\"" + DESCRIPTOR + "FirstNameDescriptor\", {\"name\": \"first\"}],"
+            + "[\"" + DESCRIPTOR + "EmailDescriptor\", {\"name\": \"email\", \"domain\": \"ex.com\"}],"
+            + "[\"" + DESCRIPTOR + "EnumValuesDescriptor\", {\"name\": \"status\","
+            + " \"dataProbability\": [\"java.util.LinkedHashMap\", {\"A\": 30, \"B\": 80}]}],"
+            + "[\"" + DESCRIPTOR + "NumberDescriptor\", {\"name\": \"price\", \"distribution\": \"NORMAL\","
+            + " \"minValue\": 0, \"maxValue\": 100, \"mean\": 50, \"standardDeviation\": 10, \"decimalPlaces\": 2}]"
+            + "]]}";
+
+    public static class Row {
+        public long id;
+        public String first;
+        public String email;
+        public String status;
+        public double price;
+    }
+
+    @Test
+    public void testRecordsMatchSerializedOutput() throws Exception {
+        SettingsConfig settingsConfig = DataBuilder.createInheritanceObjectMapper()
+                .readValue(SETTINGS, SettingsConfig.class);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new DataBuilder().serializeJsonLines(new SyntheticRecordSource(1000), output, settingsConfig,
+                GenerationPlan.compile(settingsConfig), true, 1, FieldWriters.Engine.INTERPRETED,
+                new GenerationMetrics(GenerationPlan.compile(settingsConfig), false));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> records = new DataGenerator(settingsConfig).records(1000)
+                .map(record -> {
+                    try {
+                        return objectMapper.writeValueAsString(record);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of(output.toString(StandardCharsets.UTF_8).split("\n")), records);
+    }
+
+    @Test
+    public void testJsonInputFieldsReplacedInPlace() throws Exception {
+        SettingsConfig settingsConfig = DataBuilder.createInheritanceObjectMapper()
+                .readValue(SETTINGS, SettingsConfig.class);
+        String input = "{\"a\": 1, \"id\": \"x\", \"b\": [2], \"price\": 0}\n{\"status\": \"Z\", \"c\": true}\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new DataBuilder().serializeJsonLines(openJson(input), output, settingsConfig,
+                GenerationPlan.compile(settingsConfig), true, 1, FieldWriters.Engine.INTERPRETED,
+                new GenerationMetrics(GenerationPlan.compile(settingsConfig), false));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Map<String, Object>> records = new DataGenerator(settingsConfig).records(openJson(input))
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of("a", "id", "b", "price", "first", "email", "status"),
+                List.copyOf(records.get(0).keySet()));
+        Assert.assertEquals(List.of("status", "c", "id", "first", "email", "price"),
+                List.copyOf(records.get(1).keySet()));
+        List<String> serialized = List.of(output.toString(StandardCharsets.UTF_8).split("\n"));
+        for (int i = 0; i < records.size(); i++) {
+            Assert.assertEquals(objectMapper.writeValueAsString(records.get(i)), serialized.get(i));
+        }
+    }
+
+    @Test
+    public void testLazyTypedRows() throws Exception {
+        SettingsConfig settingsConfig = DataBuilder.createInheritanceObjectMapper()
+                .readValue(SETTINGS, SettingsConfig.class);
+        DataGenerator generator = new DataGenerator(settingsConfig);
+
+        List<Row> rows = generator.records(Long.MAX_VALUE, Row.class).skip(1_000_000).limit(3)
+                .collect(Collectors.toList());
+        Assert.assertEquals(1_000_001L, rows.get(0).id);
+        Assert.assertTrue(rows.get(2).email.endsWith("@ex.com"));
+
+        // streams are independent
+        Map<String, Object> first = generator.records(1).findFirst().orElseThrow();
+        Assert.assertEquals(1L, first.get("id"));
+        Assert.assertEquals(first, generator.records(1).findFirst().orElseThrow());
+    }
+
+    private static JsonRecordSource openJson(String json) throws IOException {
+        return new JsonRecordSource(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.unhuman.dataBuilder;
+
+import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
+import com.unhuman.dataBuilder.descriptor.RecordContext;
+import com.unhuman.dataBuilder.input.InputMatcher;
+import com.unhuman.dataBuilder.output.CsvValueSink;
+import com.unhuman.dataBuilder.output.OutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.MatchResult;
+
+/**
+ * Values/sec of each descriptor (by field name in benchmark/settings.json), as Strings (getNextValue) and
+ * written to a value sink (writeNextValue).  Each value is generated as a new record.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DescriptorBenchmark {
+    @Param({ "id", "guid", "first", "last", "email", "user", "count", "age", "active", "status", "source", "notes",
+            "text", "word", "price" })
+    private String field;
+
+    private AbstractEntityTypeDescriptor descriptor;
+    private RecordContext context;
+    private MatchResult match;
+    private CsvValueSink sink;
+    private long recordNumber;
+
+    @Setup
+    public void setup() throws IOException {
+        SettingsConfig settingsConfig = BenchmarkData.loadSettings();
+        GenerationPlan plan = GenerationPlan.compile(settingsConfig);
+        descriptor = plan.bind(settingsConfig)[plan.getSlot(field)];
+        context = new RecordContext(plan.getSeed());
+
+        InputMatcher matcher = new InputMatcher(BenchmarkData.createInput(1), BenchmarkData.getPattern(settingsConfig));
+        matcher.find();
+        match = matcher.snapshot();
+        sink = new CsvValueSink(new OutputBuffer(1024));
+    }
+
+    @Benchmark
+    public String getNextValue() {
+        descriptor.setIterationState(context.startRecord(match, recordNumber++));
+        return descriptor.getNextValue(AbstractEntityTypeDescriptor.NullHandler.AS_NULL);
+    }
+
+    @Benchmark
+    public int writeNextValue() {
+        OutputBuffer output = sink.getOutput();
+        output.reset();
+        descriptor.setIterationState(context.startRecord(match, recordNumber++));
+        descriptor.writeNextValue(sink);
+        return output.size();
+    }
+}
@@ -0,0 +1,98 @@
+package com.unhuman.dataBuilder;
+
+import com.unhuman.dataBuilder.input.RecordSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to generate from a data input file (created for the trial, in the temp directory) through to a
+ * discarding output stream - extraction (regex or delimited), generation and serialization.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+    @Param({ "1MB", "100MB", "1GB" })
+    private String inputSize;
+
+    @Param({ "false", "true" })
+    private boolean memoryMapped;
+
+    @Param({ "INTERPRETED", "BYTECODE" })
+    private FieldWriters.Engine engine;
+
+    @Param({ "REGEX", "DELIMITED" })
+    private String extraction;
+
+    private final DataBuilder dataBuilder = new DataBuilder();
+    private final OutputStream output = OutputStream.nullOutputStream();
+    private SettingsConfig settingsConfig;
+    private GenerationPlan plan;
+    private GenerationMetrics metrics;
+    private File input;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        settingsConfig = BenchmarkData.loadSettings();
+        plan = GenerationPlan.compile(settingsConfig);
+        metrics = new GenerationMetrics(plan, false);
+        if ("DELIMITED".equals(extraction)) {
+            settingsConfig.setRegex(null);
+            settingsConfig.setDelimiter(',');
+        }
+        input = File.createTempFile("benchmark", ".txt");
+        BenchmarkData.writeInputFile(input.toPath(), BenchmarkData.parseSize(inputSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input.toPath());
+    }
+
+    @Benchmark
+    public void csv() throws IOException {
+        try (RecordSource source = DataBuilder.openDataInput(settingsConfig, input, memoryMapped)) {
+            dataBuilder.serializeCsv(source, output, settingsConfig, plan, 1, engine, metrics);
+        }
+    }
+
+    @Benchmark
+    public void jsonLines() throws IOException {
+        try (RecordSource source = DataBuilder.openDataInput(settingsConfig, input, memoryMapped)) {
+            dataBuilder.serializeJsonLines(source, output, settingsConfig, plan, false, 1, engine,
+                    metrics);
+        }
+    }
+
+    @Benchmark
+    public long extract() throws IOException {
+        // extraction alone - reading the fields the benchmark settings use
+        long length = 0;
+        try (RecordSource source = DataBuilder.openDataInput(settingsConfig, input, memoryMapped)) {
+            while (source.find()) {
+                length += source.match().group(1).length() + source.match().group(2).length();
+            }
+        }
+        return length;
+    }
+}
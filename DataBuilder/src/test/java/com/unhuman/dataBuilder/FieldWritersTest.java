@@ -0,0 +1,80 @@
+package com.unhuman.dataBuilder;
+
+import com.unhuman.dataBuilder.descriptor.AbstractEntityTypeDescriptor;
+import com.unhuman.dataBuilder.descriptor.BooleanDescriptor;
+import com.unhuman.dataBuilder.descriptor.EmailDescriptor;
+import com.unhuman.dataBuilder.descriptor.EmptyDescriptor;
+import com.unhuman.dataBuilder.descriptor.FirstNameDescriptor;
+import com.unhuman.dataBuilder.descriptor.LastNameDescriptor;
+import com.unhuman.dataBuilder.descriptor.RecordContext;
+import com.unhuman.dataBuilder.output.BufferedValueSink;
+import com.unhuman.dataBuilder.output.CsvValueSink;
+import com.unhuman.dataBuilder.output.JsonValueSink;
+import com.unhuman.dataBuilder.output.OutputBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.function.Function;
+
+public class FieldWritersTest {
+    private static final int RECORDS = 100;
+
+    @Test
+    public void testCsvEnginesMatch() {
+        GenerationPlan plan = GenerationPlan.compile(createSettingsConfig());
+        String interpreted = write(plan, FieldWriters.csv(plan, FieldWriters.Engine.INTERPRETED), CsvValueSink::new);
+        String bytecode = write(plan, FieldWriters.csv(plan, FieldWriters.Engine.BYTECODE), CsvValueSink::new);
+        Assert.assertEquals(interpreted, bytecode);
+        Assert.assertEquals(4, interpreted.split("\n")[0].split(",", -1).length - 1);
+    }
+
+    @Test
+    public void testJsonEnginesMatch() {
+        GenerationPlan plan = GenerationPlan.compile(createSettingsConfig());
+        Function<OutputBuffer, JsonValueSink> sinkFactory = buffer -> new JsonValueSink(buffer, true);
+        String interpreted = write(plan, FieldWriters.json(plan, FieldWriters.Engine.INTERPRETED), sinkFactory);
+        String bytecode = write(plan, FieldWriters.json(plan, FieldWriters.Engine.BYTECODE), sinkFactory);
+        Assert.assertEquals(interpreted, bytecode);
+        Assert.assertTrue(interpreted.startsWith("{\"first\":\""));
+    }
+
+    @Test
+    public void testGeneratedClassReused() {
+        // plans with the same descriptor types share a generated class, rather than defining one per plan
+        Class<?> csvClass = FieldWriters.csv(GenerationPlan.compile(createSettingsConfig()),
+                FieldWriters.Engine.BYTECODE).getClass();
+        Assert.assertSame(csvClass, FieldWriters.csv(GenerationPlan.compile(createSettingsConfig()),
+                FieldWriters.Engine.BYTECODE).getClass());
+        Assert.assertNotSame(csvClass, FieldWriters.json(GenerationPlan.compile(createSettingsConfig()),
+                FieldWriters.Engine.BYTECODE).getClass());
+    }
+
+    private static SettingsConfig createSettingsConfig() {
+        SettingsConfig settingsConfig = new SettingsConfig();
+        settingsConfig.setSeed(42L);
+        settingsConfig.addSetting(new FirstNameDescriptor("first"));
+        settingsConfig.addSetting(new LastNameDescriptor("last"));
+        settingsConfig.addSetting(new EmailDescriptor("email"));
+        settingsConfig.addSetting(new BooleanDescriptor("flag"));
+        settingsConfig.addSetting(new EmptyDescriptor("empty"));
+        return settingsConfig;
+    }
+
+    private static <S extends BufferedValueSink> String write(GenerationPlan plan, FieldWriter<S> fieldWriter,
+                                                              Function<OutputBuffer, S> sinkFactory) {
+        AbstractEntityTypeDescriptor[] descriptors = plan.bind(createSettingsConfig());
+        RecordContext context = new RecordContext(plan.getSeed());
+        S sink = sinkFactory.apply(new OutputBuffer(1024));
+        for (int i = 0; i < RECORDS; i++) {
+            if (sink instanceof JsonValueSink) {
+                ((JsonValueSink) sink).startObject();
+                fieldWriter.writeFields(descriptors, context.startRecord(null, i), sink);
+                ((JsonValueSink) sink).endObject();
+            } else {
+                fieldWriter.writeFields(descriptors, context.startRecord(null, i), sink);
+            }
+            sink.getOutput().write('\n');
+        }
+        return sink.getOutput().toString();
+    }
+}
@@ -0,0 +1,63 @@
+package com.unhuman.dataBuilder;
+
+import com.unhuman.dataBuilder.descriptor.EmptyDescriptor;
+import com.unhuman.dataBuilder.descriptor.FirstNameDescriptor;
+import com.unhuman.dataBuilder.input.PromptHelper;
+import com.unhuman.dataBuilder.input.SyntheticRecordSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class GenerationMetricsTest {
+    @Test
+    public void testCountsRecordsAndBytes() throws Exception {
+        SettingsConfig settingsConfig = new SettingsConfig();
+        settingsConfig.addSetting(new FirstNameDescriptor("first"));
+        settingsConfig.addSetting(new EmptyDescriptor("empty"));
+        GenerationPlan plan = GenerationPlan.compile(settingsConfig);
+        GenerationMetrics metrics = new GenerationMetrics(plan, true);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream output = metrics.measure(bytes)) {
+            new DataBuilder().serializeCsv(metrics.measure(new SyntheticRecordSource(100)), output, settingsConfig,
+                    plan, 1, FieldWriters.Engine.BYTECODE, metrics);
+        }
+        metrics.stop();
+
+        Assert.assertEquals(100, metrics.getRecords());
+        Assert.assertEquals(bytes.size(), metrics.getBytes());
+        Map<String, Object> values = metrics.toMap();
+        Assert.assertEquals(100L, values.get("records"));
+        Assert.assertEquals(plan.getFieldCount(), ((Map<?, ?>) values.get("descriptorSeconds")).size());
+    }
+
+    @Test
+    public void testProgressReportedToCallersConsole() throws Exception {
+        SettingsConfig settingsConfig = new SettingsConfig();
+        settingsConfig.addSetting(new FirstNameDescriptor("first"));
+        GenerationMetrics metrics = new GenerationMetrics(GenerationPlan.compile(settingsConfig), false);
+
+        ByteArrayOutputStream transcript = new ByteArrayOutputStream();
+        PrintStream console = new PrintStream(transcript, true, StandardCharsets.UTF_8);
+        PromptHelper.redirectConsole(console, console);
+        try {
+            metrics.startProgress(1);
+        } finally {
+            PromptHelper.resetConsole();
+        }
+        metrics.addRecords(42);
+        for (int i = 0; i < 50 && transcript.size() == 0; i++) {
+            Thread.sleep(100);
+        }
+        metrics.stop();
+
+        String progress = transcript.toString(StandardCharsets.UTF_8);
+        Assert.assertTrue(progress, progress.startsWith("42 records"));
+        Assert.assertTrue(progress, progress.contains("(done)"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.unhuman.dataBuilder;
+
+import com.unhuman.dataBuilder.input.InputMatcher;
+import com.unhuman.dataBuilder.output.TextValueSink;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+public class ParallelRecordWriterTest {
+    @Test
+    public void testOutputInInputOrder() throws Exception {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            input.append("value").append(i).append('\n');
+            expected.append(i).append('=').append("value").append(i).append('\n');
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        InputMatcher matcher = new InputMatcher(new StringReader(input.toString()), Pattern.compile("value\\d+"));
+        GenerationPlan plan = GenerationPlan.compile(new SettingsConfig());
+        new ParallelRecordWriter<>(4, plan, SettingsConfig::new, TextValueSink::new).write(matcher, output,
+                (descriptors, context, sink) -> sink.getOutput().writeLong(context.getRecordNumber())
+                        .writeChar('=').writeChars(context.getMatch().group()).writeChar('\n'));
+
+        Assert.assertEquals(expected.toString(), output.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package com.unhuman.dataBuilder;
+
+import com.unhuman.dataBuilder.input.InputMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Records/sec of the serializers over in-memory input, written to a discarding output stream.
+ * CSV / JSON run with each record writer engine.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializerBenchmark {
+    private static final int RECORDS = 10_000;
+
+    @State(Scope.Thread)
+    public static class EngineState {
+        @Param({ "INTERPRETED", "BYTECODE" })
+        private FieldWriters.Engine engine;
+    }
+
+    private final DataBuilder dataBuilder = new DataBuilder();
+    private final OutputStream output = OutputStream.nullOutputStream();
+    private SettingsConfig settingsConfig;
+    private GenerationPlan plan;
+    private GenerationMetrics metrics;
+    private Pattern pattern;
+    private String input;
+
+    private SettingsConfig templateSettingsConfig;
+    private GenerationPlan templatePlan;
+    private GenerationMetrics templateMetrics;
+    private File template;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        settingsConfig = BenchmarkData.loadSettings();
+        plan = GenerationPlan.compile(settingsConfig);
+        metrics = new GenerationMetrics(plan, false);
+        pattern = BenchmarkData.getPattern(settingsConfig);
+        input = BenchmarkData.createInput(RECORDS);
+
+        // file content needs a data input match, so the template uses the other fields
+        templateSettingsConfig = BenchmarkData.loadSettings();
+        templateSettingsConfig.setRegex(null);
+        templateSettingsConfig.getSettings().removeIf(setting -> setting.getName().matches("user|count"));
+        templatePlan = GenerationPlan.compile(templateSettingsConfig);
+        templateMetrics = new GenerationMetrics(templatePlan, false);
+        StringBuilder templateContent = new StringBuilder("[\n$[#repeat " + RECORDS + "]  {");
+        for (int slot = 0; slot < templatePlan.getFieldCount(); slot++) {
+            templateContent.append((slot > 0) ? ", " : "").append('"').append(templatePlan.getFieldName(slot))
+                    .append("\": $[").append(templatePlan.getFieldName(slot)).append(']');
+        }
+        templateContent.append("},\n$[/repeat]]\n");
+        template = File.createTempFile("benchmark", ".template");
+        Files.writeString(template.toPath(), templateContent);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(template.toPath());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void csv(EngineState state) throws IOException {
+        dataBuilder.serializeCsv(new InputMatcher(input, pattern), output, settingsConfig, plan, 1, state.engine,
+                metrics);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void json(EngineState state) throws IOException {
+        dataBuilder.serializeJson(new InputMatcher(input, pattern), output, settingsConfig, plan, false, 1,
+                state.engine, metrics);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void jsonLines(EngineState state) throws IOException {
+        dataBuilder.serializeJsonLines(new InputMatcher(input, pattern), output, settingsConfig, plan, false, 1,
+                state.engine, metrics);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void direct() throws IOException {
+        dataBuilder.serializeDirect(template, false, output, templateSettingsConfig, templatePlan,
+                templateMetrics);
+    }
+}
@@ -11,7 +11,10 @@ public class AbstractCohesiveDataDescriptorTest {
 
     @Before
     public void setup() {
-        AbstractCohesiveDataDescriptor.reset();
+        RecordContext context = new RecordContext(null).startRecord(null, 0);
+        firstNameDescriptor.setIterationState(context);
+        lastNameDescriptor.setIterationState(context);
+        emailDescriptor.setIterationState(context);
     }
 
     @Test
@@ -0,0 +1,59 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class EnumValuesDescriptorTest {
+    private static final int SAMPLES = 100000;
+
+    @Test
+    public void testPercentages() {
+        Map<String, Integer> dataProbability = new LinkedHashMap<>();
+        dataProbability.put("A", 30);
+        dataProbability.put("B", 80);
+        Map<String, Integer> counts = sample(create(dataProbability, null));
+
+        assertShare(0.3, counts.get("\"A\""));
+        assertShare(0.5, counts.get("\"B\""));
+        assertShare(0.2, counts.get(null));
+    }
+
+    @Test
+    public void testWeights() {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            weights.put("V" + i, 0.001);
+        }
+        weights.put("common", 1.0);
+        weights.put("half", 0.5);
+        weights.put("never", 0.0);
+        Map<String, Integer> counts = sample(create(null, weights));
+
+        assertShare(0.4, counts.get("\"common\""));
+        assertShare(0.2, counts.get("\"half\""));
+        Assert.assertNull(counts.get("\"never\""));
+        Assert.assertNull(counts.get(null));
+    }
+
+    private static EnumValuesDescriptor create(Map<String, Integer> dataProbability, Map<String, Double> weights) {
+        EnumValuesDescriptor descriptor = new EnumValuesDescriptor("status", dataProbability, weights);
+        descriptor.setIterationState(new RecordContext(42L).startRecord(null, 0));
+        return descriptor;
+    }
+
+    private static Map<String, Integer> sample(EnumValuesDescriptor descriptor) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            counts.merge(descriptor.getNextValue(AbstractEntityTypeDescriptor.NullHandler.AS_NULL), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static void assertShare(double expected, int count) {
+        Assert.assertEquals(expected, (double) count / SAMPLES, 0.01);
+    }
+}
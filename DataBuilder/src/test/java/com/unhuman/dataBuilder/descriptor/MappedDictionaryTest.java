@@ -0,0 +1,77 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MappedDictionaryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEntriesAndCachedIndex() throws Exception {
+        File file = write("words.txt", "alpha\r\n\nbeta\n\u00e9t\u00e9\ngamma");
+        MappedDictionary dictionary = MappedDictionary.open(file.getPath(), false);
+        Assert.assertEquals(4, dictionary.size());
+        Assert.assertTrue(new File(file.getPath() + ".idx").isFile());
+
+        MappedDictionary.Reader reader = dictionary.createReader();
+        String[] expected = { "alpha", "beta", "\u00e9t\u00e9", "gamma" };
+        for (int i = 0; i < expected.length; i++) {
+            StringValueSink sink = new StringValueSink();
+            reader.writeString(i, sink);
+            Assert.assertEquals("\"" + expected[i] + "\"", sink.getValue(AbstractEntityTypeDescriptor.NullHandler.AS_NULL));
+        }
+    }
+
+    @Test
+    public void testChangedDictionaryReopened() throws Exception {
+        File file = write("changing.txt", "alpha\nbeta\n");
+        Assert.assertEquals(2, MappedDictionary.open(file.getPath(), false).size());
+        Assert.assertSame(MappedDictionary.open(file.getPath(), false), MappedDictionary.open(file.getPath(), false));
+
+        Files.write(file.toPath(), "alpha\nbeta\ngamma\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(3, MappedDictionary.open(file.getPath(), false).size());
+    }
+
+    @Test
+    public void testUnsavedIndexCleanedUp() throws Exception {
+        File file = write("unsaved.txt", "alpha\nbeta\n");
+        // a (non-empty) directory where the index goes can't be replaced
+        File indexDirectory = folder.newFolder("unsaved.txt.idx");
+        Assert.assertTrue(new File(indexDirectory, "file").createNewFile());
+
+        Assert.assertEquals(2, MappedDictionary.open(file.getPath(), false).size());
+        String[] files = folder.getRoot().list((directory, name) -> name.startsWith("unsaved"));
+        Arrays.sort(files);
+        Assert.assertArrayEquals(new String[] { "unsaved.txt", "unsaved.txt.idx" }, files);
+    }
+
+    @Test
+    public void testWeightedSampling() throws Exception {
+        File file = write("weighted.txt", "rare\t1\ncommon\t9\nnever\t0\n");
+        DictionaryDescriptor descriptor = new DictionaryDescriptor("word", file.getPath(), true);
+        descriptor.setIterationState(new RecordContext(1234L).startRecord(null, 0));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            counts.merge(descriptor.getNextValue(AbstractEntityTypeDescriptor.NullHandler.AS_NULL), 1, Integer::sum);
+        }
+        Assert.assertNull(counts.get("\"never\""));
+        Assert.assertTrue(counts.get("\"common\"") > counts.get("\"rare\"") * 6);
+    }
+
+    private File write(String name, String content) throws Exception {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
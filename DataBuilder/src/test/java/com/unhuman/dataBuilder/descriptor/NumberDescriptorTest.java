@@ -0,0 +1,133 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class NumberDescriptorTest {
+    private static final int SAMPLES = 100000;
+
+    @Test
+    public void testUniformLongRange() {
+        NumberDescriptor descriptor = create(NumberDescriptor.Distribution.UNIFORM, 5_000_000_000L, 5_000_000_009L, 0);
+        for (int i = 0; i < 1000; i++) {
+            long value = Long.parseLong(next(descriptor));
+            Assert.assertTrue(value >= 5_000_000_000L && value <= 5_000_000_009L);
+        }
+    }
+
+    @Test
+    public void testUniformWholeLongRange() {
+        NumberDescriptor descriptor = create(NumberDescriptor.Distribution.UNIFORM, -0x1p63, 0x1.fffffffffffffp62, 0);
+        boolean negative = false;
+        boolean positive = false;
+        for (int i = 0; i < 1000; i++) {
+            long value = Long.parseLong(next(descriptor));
+            Assert.assertTrue(value <= 0x1.fffffffffffffp62);
+            negative |= value < 0;
+            positive |= value > 0;
+        }
+        Assert.assertTrue(negative && positive);
+    }
+
+    @Test
+    public void testUniformUnbiased() {
+        NumberDescriptor descriptor = create(NumberDescriptor.Distribution.UNIFORM, 0, 2, 0);
+        int[] counts = new int[3];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[Integer.parseInt(next(descriptor))]++;
+        }
+        for (int count: counts) {
+            Assert.assertEquals(1.0 / 3, (double) count / SAMPLES, 0.01);
+        }
+    }
+
+    @Test
+    public void testLargeDecimals() {
+        NumberDescriptor descriptor = create(NumberDescriptor.Distribution.UNIFORM, 1e12, 1e12 + 1, 9);
+        for (int i = 0; i < 1000; i++) {
+            String value = next(descriptor);
+            Assert.assertTrue(value, value.matches("100000000000[01]\\.\\d{9}"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZipfRangeTooLarge() {
+        next(create(NumberDescriptor.Distribution.ZIPF, -0x1p63, 0x1.fffffffffffffp62, 0));
+    }
+
+    @Test
+    public void testFractionalBounds() {
+        assertValues(create(NumberDescriptor.Distribution.UNIFORM, 1.5, 3.5, 0), "2", "3");
+        assertValues(create(NumberDescriptor.Distribution.ZIPF, -2.5, -0.5, 0), "-2", "-1");
+        // values clamped to the bounds are rounded into the range
+        NumberDescriptor descriptor = create(NumberDescriptor.Distribution.NORMAL, -0.015, -0.005, 2);
+        descriptor.setStandardDeviation(1.0);
+        assertValues(descriptor, "-0.01");
+        assertValues(create(NumberDescriptor.Distribution.EXPONENTIAL, 0.7, 0.7, 1), "0.7");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoWholeNumbersInRange() {
+        next(create(NumberDescriptor.Distribution.UNIFORM, 1.2, 1.8, 0));
+    }
+
+    @Test
+    public void testDecimals() {
+        NumberDescriptor descriptor = create(NumberDescriptor.Distribution.NORMAL, -10, 10, 3);
+        descriptor.setStandardDeviation(2.0);
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            String value = next(descriptor);
+            Assert.assertTrue(value, value.matches("-?\\d+\\.\\d{3}"));
+            sum += Double.parseDouble(value);
+        }
+        Assert.assertEquals(0.0, sum / SAMPLES, 0.05);
+    }
+
+    @Test
+    public void testExponentialMean() {
+        NumberDescriptor descriptor = create(NumberDescriptor.Distribution.EXPONENTIAL, 100, 1_000_000, 2);
+        descriptor.setMean(50.0);
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            sum += Double.parseDouble(next(descriptor));
+        }
+        Assert.assertEquals(150.0, sum / SAMPLES, 1.0);
+    }
+
+    @Test
+    public void testZipfSkew() {
+        NumberDescriptor descriptor = create(NumberDescriptor.Distribution.ZIPF, 1, 1000, 0);
+        int[] counts = new int[1001];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[Integer.parseInt(next(descriptor))]++;
+        }
+        // rank k has probability proportional to 1 / k (H(1000) ~= 7.485)
+        Assert.assertEquals(1.0 / 7.485, (double) counts[1] / SAMPLES, 0.01);
+        Assert.assertEquals(2.0, (double) counts[1] / counts[2], 0.15);
+        Assert.assertTrue(counts[1] > counts[10] * 5);
+    }
+
+    private static void assertValues(NumberDescriptor descriptor, String... expected) {
+        Set<String> values = new TreeSet<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(next(descriptor));
+        }
+        Assert.assertEquals(new TreeSet<>(Arrays.asList(expected)), values);
+    }
+
+    private static NumberDescriptor create(NumberDescriptor.Distribution distribution, double minValue,
+                                           double maxValue, int decimalPlaces) {
+        NumberDescriptor descriptor = new NumberDescriptor("value", distribution, minValue, maxValue, decimalPlaces);
+        descriptor.setIterationState(new RecordContext(7L).startRecord(null, 0));
+        return descriptor;
+    }
+
+    private static String next(NumberDescriptor descriptor) {
+        return descriptor.getNextValue(AbstractEntityTypeDescriptor.NullHandler.AS_NULL);
+    }
+}
@@ -0,0 +1,41 @@
+package com.unhuman.dataBuilder.descriptor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TextContentDescriptorTest {
+    @Test
+    public void testExactSize() {
+        TextContentDescriptor descriptor = create(1024 * 1024, 0);
+        for (int i = 0; i < 5; i++) {
+            String value = next(descriptor);
+            // quoted
+            Assert.assertEquals(1024 * 1024 + 2, value.length());
+            Assert.assertTrue(value.matches("\"[A-Z][A-Za-z .'-]*\\.\""));
+        }
+    }
+
+    @Test
+    public void testSizeVariance() {
+        TextContentDescriptor descriptor = create(4096, 10);
+        int smallest = Integer.MAX_VALUE;
+        int largest = 0;
+        for (int i = 0; i < 10000; i++) {
+            int size = next(descriptor).length() - 2;
+            smallest = Math.min(smallest, size);
+            largest = Math.max(largest, size);
+        }
+        Assert.assertEquals(4096 - 409, smallest);
+        Assert.assertEquals(4096 + 409, largest);
+    }
+
+    private static TextContentDescriptor create(int targetBytes, int sizeVariancePercent) {
+        TextContentDescriptor descriptor = new TextContentDescriptor("body", targetBytes, sizeVariancePercent);
+        descriptor.setIterationState(new RecordContext(3L).startRecord(null, 0));
+        return descriptor;
+    }
+
+    private static String next(TextContentDescriptor descriptor) {
+        return descriptor.getNextValue(AbstractEntityTypeDescriptor.NullHandler.AS_NULL);
+    }
+}
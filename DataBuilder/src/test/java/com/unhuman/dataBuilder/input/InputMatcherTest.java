@@ -0,0 +1,145 @@
+package com.unhuman.dataBuilder.input;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class InputMatcherTest {
+    @Test
+    public void testMatchesSpanningBufferRefills() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("user").append(i).append(',').append(i * 7).append('\n');
+        }
+        Pattern pattern = Pattern.compile("(\\w+),(\\d+)");
+        Assert.assertEquals(findAll(pattern, content.toString()), streamAll(pattern, content.toString()));
+    }
+
+    @Test
+    public void testEmptyMatches() throws Exception {
+        Pattern pattern = Pattern.compile("x*");
+        Assert.assertEquals(findAll(pattern, "axxbx"), streamAll(pattern, "axxbx"));
+    }
+
+    @Test
+    public void testNamedGroupsWithoutCopying() throws Exception {
+        Pattern pattern = Pattern.compile("(?:\\s)(?<name>[a-z(]+)=(\\()?(?<value>\\d+)(?<=\\d)");
+        InputMatcher matcher = new InputMatcher(new StringReader("skip ab=12 cd=(34"), pattern)
+                .withNamedGroups(List.of("value", "missing"));
+        Assert.assertTrue(matcher.find());
+        InputMatch match = (InputMatch) matcher.match();
+        Assert.assertEquals("ab", match.group("name"));
+        assertNoGroup(match, "missing");
+        Assert.assertEquals("12", match.getText("value").subSequence(match.start("value"), match.end("value"))
+                .toString());
+
+        Assert.assertTrue(matcher.find());
+        InputMatch snapshot = (InputMatch) matcher.snapshot();
+        Assert.assertFalse(matcher.find());
+        Assert.assertEquals("cd", snapshot.getText(1).subSequence(snapshot.start(1), snapshot.end(1)).toString());
+        Assert.assertEquals("34", snapshot.group("value"));
+        Assert.assertEquals("34", snapshot.getText("value").subSequence(snapshot.start("value"),
+                snapshot.end("value")).toString());
+        // only the groups asked for are kept, and names that aren't groups fail
+        assertNoGroup(snapshot, "name");
+        assertNoGroup(snapshot, "missing");
+    }
+
+    @Test
+    public void testNamedGroupsInCommentsMode() throws Exception {
+        // in comments mode, "#(" starts a comment rather than a group
+        Pattern pattern = Pattern.compile("(?x) (\\w+) \\s* # ( not a group\n = \\s* (?<value>\\d+)");
+        InputMatcher matcher = new InputMatcher(new StringReader("ab = 12"), pattern)
+                .withNamedGroups(List.of("value"));
+        Assert.assertTrue(matcher.find());
+        Assert.assertEquals("12", ((InputMatch) matcher.match()).group("value"));
+        Assert.assertEquals("12", ((InputMatch) matcher.snapshot()).group("value"));
+    }
+
+    private static void assertNoGroup(InputMatch match, String name) {
+        try {
+            match.start(name);
+            Assert.fail("Expected no group named " + name);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testNoMatches() throws Exception {
+        Assert.assertFalse(new InputMatcher(new StringReader("abc"), Pattern.compile("\\d")).find());
+    }
+
+    @Test
+    public void testLateMatchFound() throws Exception {
+        // more unmatched content than the window holds before the only match
+        InputMatcher matcher = new InputMatcher(repeat('x', InputMatcher.MAX_WINDOW_SIZE + 4_000_000, "id=42\n"),
+                Pattern.compile("id=(\\d+)"));
+        Assert.assertTrue(matcher.find());
+        Assert.assertEquals("42", matcher.match().group(1));
+        Assert.assertFalse(matcher.find());
+    }
+
+    @Test
+    public void testMatchAtDroppedContent() throws Exception {
+        // the match starts where unmatched content was dropped, so it may have lost its start
+        InputMatcher matcher = new InputMatcher(repeat('a', InputMatcher.MAX_WINDOW_SIZE + 4_000_000, "b"),
+                Pattern.compile("(?<!a)a++b"));
+        try {
+            matcher.find();
+            Assert.fail("Expected the window to be exceeded");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains(Integer.toString(InputMatcher.MAX_WINDOW_SIZE)));
+        }
+    }
+
+    /**
+     * @return reader of count copies of a char, followed by the tail
+     */
+    private static Reader repeat(char c, int count, String tail) {
+        return new Reader() {
+            private int position = 0;
+
+            @Override
+            public int read(char[] destination, int offset, int length) {
+                if (position >= count + tail.length()) {
+                    return -1;
+                }
+                int read = Math.min(length, count + tail.length() - position);
+                for (int i = 0; i < read; i++, position++) {
+                    destination[offset + i] = (position < count) ? c : tail.charAt(position - count);
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private List<String> findAll(Pattern pattern, String content) {
+        List<String> matches = new ArrayList<>();
+        Matcher matcher = pattern.matcher(content);
+        while (matcher.find()) {
+            matches.add(matcher.group());
+        }
+        return matches;
+    }
+
+    private List<String> streamAll(Pattern pattern, String content) throws Exception {
+        List<String> matches = new ArrayList<>();
+        InputMatcher matcher = new InputMatcher(new StringReader(content), pattern);
+        while (matcher.find()) {
+            matches.add(matcher.match().group());
+        }
+        return matches;
+    }
+}
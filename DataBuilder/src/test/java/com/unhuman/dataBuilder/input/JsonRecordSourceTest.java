@@ -0,0 +1,64 @@
+package com.unhuman.dataBuilder.input;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.unhuman.dataBuilder.output.JsonValueSink;
+import com.unhuman.dataBuilder.output.OutputBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonRecordSourceTest {
+    @Test
+    public void testArrayAndJsonLinesMatch() throws Exception {
+        List<String> expected = List.of("{\"id\":1,\"tags\":[\"a\",{\"b\":null}]}", "{\"id\":2}");
+        Assert.assertEquals(expected, readAll(" [ {\"id\": 1, \"tags\": [\"a\", {\"b\": null}]},\n{\"id\": 2} ] "));
+        Assert.assertEquals(expected, readAll("{\"id\": 1, \"tags\": [\"a\", {\"b\": null}]}\n{\"id\": 2}\n"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNonObjectRecord() throws Exception {
+        readAll("[{\"id\": 1}, 2]");
+    }
+
+    @Test
+    public void testMutation() throws Exception {
+        JsonRecordSource source = open("{\"keep\": {\"a\": [1]}, \"replace\": \"old\", \"last\": true}");
+        Assert.assertTrue(source.find());
+
+        OutputBuffer buffer = new OutputBuffer();
+        JsonValueSink sink = new JsonValueSink(buffer, false);
+        sink.startObject();
+        sink.captureFields();
+        sink.startField(new SerializedString("added"));
+        sink.writeLong(1);
+        sink.startField(new SerializedString("replace"));
+        sink.writeString("new");
+        sink.startField(new SerializedString("last"));
+        sink.writeNull();
+        sink.copyFields(((JsonRecord) source.match()).createParser(),
+                name -> List.of("added", "replace", "last").contains(name));
+        sink.endObject();
+
+        // replaced fields keep their position, null fields (not serialized) are removed and new ones are added last
+        Assert.assertEquals("{\"keep\":{\"a\":[1]},\"replace\":\"new\",\"added\":1}", buffer.toString());
+    }
+
+    private static List<String> readAll(String json) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (JsonRecordSource source = open(json)) {
+            while (source.find()) {
+                records.add(source.match().group());
+            }
+        }
+        return records;
+    }
+
+    private static JsonRecordSource open(String json) throws IOException {
+        return new JsonRecordSource(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.unhuman.dataBuilder.input;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+public class MappedCharSequenceTest {
+    @Test
+    public void testAscii() throws Exception {
+        assertMapsTo("line one\nline two\n");
+    }
+
+    @Test
+    public void testUtf8AcrossCheckpoints() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            content.append("r\u00e9sum\u00e9 \u4e2d\u6587 \ud83d\ude00 ").append(i).append('\n');
+        }
+        assertMapsTo(content.toString());
+    }
+
+    @Test
+    public void testBackwardsAccess() throws Exception {
+        String content = "a\u00e9\ud83d\ude00b".repeat(3000);
+        MappedCharSequence mapped = map(content);
+        for (int i = content.length() - 1; i >= 0; i -= 7) {
+            Assert.assertEquals(content.charAt(i), mapped.charAt(i));
+        }
+    }
+
+    @Test
+    public void testIndexedAsRead() throws Exception {
+        String content = "ascii ".repeat(2000) + "r\u00e9sum\u00e9 \ud83d\ude00 ".repeat(2000);
+        MappedCharSequence mapped = map(content);
+        Assert.assertEquals(0, mapped.indexedChars().length());
+
+        Assert.assertTrue(mapped.indexMore(10000));
+        int indexed = mapped.indexedChars().length();
+        Assert.assertTrue(indexed >= 10000 && indexed < content.length());
+        Assert.assertEquals(content.substring(0, indexed), mapped.indexedChars().toString());
+
+        StringBuilder read = new StringBuilder();
+        char[] chars = new char[1000];
+        try (Reader reader = map(content).reader()) {
+            for (int count; (count = reader.read(chars)) >= 0; ) {
+                read.append(chars, 0, count);
+            }
+        }
+        Assert.assertEquals(content, read.toString());
+
+        Assert.assertEquals(content.length(), mapped.length());
+        Assert.assertFalse(mapped.indexMore(10000));
+    }
+
+    @Test
+    public void testMatchedAsIndexed() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            content.append("\u00e9l\u00e9ment ").append(i).append('\n');
+        }
+        InputMatcher matcher = new InputMatcher(map(content.toString()), Pattern.compile("(\\d+)\n"));
+        for (int i = 0; i < 50000; i++) {
+            Assert.assertTrue(matcher.find());
+            Assert.assertEquals(Integer.toString(i), matcher.match().group(1));
+        }
+        Assert.assertFalse(matcher.find());
+    }
+
+    private void assertMapsTo(String content) throws Exception {
+        MappedCharSequence mapped = map(content);
+        Assert.assertEquals(content.length(), mapped.length());
+        Assert.assertEquals(content, mapped.toString());
+        Assert.assertEquals(content.substring(3, 15), mapped.subSequence(3, 15).toString());
+    }
+
+    private MappedCharSequence map(String content) throws Exception {
+        Path file = Files.createTempFile("mapped", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return MappedCharSequence.map(file);
+    }
+}
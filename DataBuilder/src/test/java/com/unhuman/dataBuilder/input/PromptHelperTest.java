@@ -0,0 +1,59 @@
+package com.unhuman.dataBuilder.input;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+public class PromptHelperTest {
+    private enum Choice { FIRST, SECOND }
+
+    private final ByteArrayOutputStream transcript = new ByteArrayOutputStream();
+
+    @Before
+    public void setup() {
+        PrintStream console = new PrintStream(transcript, true, StandardCharsets.UTF_8);
+        PromptHelper.redirectConsole(console, console);
+    }
+
+    @After
+    public void teardown() {
+        PromptHelper.clearAnswers();
+        PromptHelper.resetConsole();
+    }
+
+    @Test
+    public void testScriptedAnswers() {
+        PromptHelper.useAnswers(new BufferedReader(new StringReader("x\n42\n\nSECOND\n2\nmaybe\nY\n")));
+
+        Assert.assertEquals(42, PromptHelper.promptIntegerValue("number"));
+        Assert.assertEquals("default", PromptHelper.promptForValue("value", "default"));
+        Assert.assertEquals("SECOND", PromptHelper.promptForEnumValue("choice", PromptHelper.StartingIndex.ONE,
+                Choice.values()));
+        Assert.assertEquals("SECOND", PromptHelper.promptForEnumValue("choice", PromptHelper.StartingIndex.ONE,
+                Choice.values()));
+        Assert.assertTrue(PromptHelper.promptYesNo("sure?"));
+
+        String output = transcript.toString(StandardCharsets.UTF_8);
+        Assert.assertTrue(output, output.contains("Invalid value: x"));
+        Assert.assertTrue(output, output.contains("Invalid value: maybe"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAnswersRunOut() {
+        PromptHelper.useAnswers(new BufferedReader(new StringReader("1\n")));
+        PromptHelper.promptIntegerValue("minimum");
+        PromptHelper.promptIntegerValue("maximum");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRedirectedConsoleCantPrompt() {
+        PromptHelper.promptForValue("value");
+    }
+}
@@ -0,0 +1,71 @@
+package com.unhuman.dataBuilder.input;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SplitRecordSourceTest {
+    @Test
+    public void testDelimitedMatchesRegexAcrossBufferRefills() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("user").append(i).append(',').append(i * 7).append(",x\n");
+        }
+        List<String> expected = new ArrayList<>();
+        Matcher matcher = Pattern.compile("(\\w+),(\\d+),(\\w+)").matcher(content);
+        while (matcher.find()) {
+            expected.add(matcher.group(1) + "|" + matcher.group(2) + "|" + matcher.group(3));
+        }
+
+        List<String> actual = new ArrayList<>();
+        RecordSource source = new DelimitedRecordSource(new StringReader(content.toString()), ',', 0);
+        while (source.find()) {
+            actual.add(source.match().group(1) + "|" + source.match().group(2) + "|" + source.match().group(3));
+        }
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testDelimitedQuotesAndShortRecords() throws Exception {
+        RecordSource source = new DelimitedRecordSource(
+                new StringReader("name\tnote\r\n\"a\tb\"\t\"say \"\"hi\"\"\"\r\n\nc\t\nd"), '\t', 1);
+        Assert.assertTrue(source.find());
+        MatchResult first = source.snapshot();
+        Assert.assertTrue(source.find());
+        Assert.assertEquals("c", source.match().group(1));
+        Assert.assertEquals("", source.match().group(2));
+        Assert.assertTrue(source.find());
+        Assert.assertEquals("d", source.match().group(1));
+        Assert.assertNull(source.match().group(2));
+        Assert.assertFalse(source.find());
+
+        Assert.assertEquals(2, first.groupCount());
+        Assert.assertEquals("say \"hi\"", ((InputMatch) first).group("note"));
+        Assert.assertNull(((InputMatch) first).getText(2));
+        Assert.assertEquals("a\tb", ((InputMatch) first).getText(1).subSequence(first.start(1), first.end(1))
+                .toString());
+        Assert.assertEquals("a\tb", first.group(1));
+        Assert.assertEquals("say \"hi\"", first.group(2));
+    }
+
+    @Test
+    public void testFixedWidth() throws Exception {
+        RecordSource source = new FixedWidthRecordSource(
+                new StringReader("  1alice     NY\n 22bob\n"), new int[] { 3, 10, 2 }, 0);
+        Assert.assertTrue(source.find());
+        Assert.assertEquals("1", source.match().group(1));
+        Assert.assertEquals("alice", source.match().group(2));
+        Assert.assertEquals("NY", source.match().group(3));
+        Assert.assertTrue(source.find());
+        Assert.assertEquals("22", source.match().group(1));
+        Assert.assertEquals("bob", source.match().group(2));
+        Assert.assertNull(source.match().group(3));
+        Assert.assertFalse(source.find());
+    }
+}
@@ -0,0 +1,60 @@
+package com.unhuman.dataBuilder.output;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class ValueSinkTest {
+    @Test
+    public void testCsvQuoting() {
+        OutputBuffer buffer = new OutputBuffer(4);
+        CsvValueSink sink = new CsvValueSink(buffer);
+        sink.writeString("say \"hi\"");
+        buffer.write(',');
+        sink.writeNull();
+        buffer.write(',');
+        byte[] utf8 = "caf\u00e9 \"".getBytes(StandardCharsets.UTF_8);
+        sink.writeString(utf8, 0, utf8.length);
+        buffer.write(',');
+        sink.writeLong(-1234567890123L);
+
+        Assert.assertEquals("\"say \"\"hi\"\"\",,\"caf\u00e9 \"\"\",-1234567890123", buffer.toString());
+    }
+
+    @Test
+    public void testJsonFields() {
+        OutputBuffer buffer = new OutputBuffer();
+        JsonValueSink sink = new JsonValueSink(buffer, false);
+        sink.startObject();
+        sink.startField(new SerializedString("skipped"));
+        sink.writeNull();
+        sink.startField(new SerializedString("text"));
+        sink.writeString("a\"b\\c\nd\u0001\ud83d\ude00");
+        sink.startField(new SerializedString("flag"));
+        sink.writeBoolean(true);
+        sink.startField(new SerializedString("count"));
+        sink.writeInt(Integer.MIN_VALUE);
+        sink.endObject();
+
+        Assert.assertEquals("{\"text\":\"a\\\"b\\\\c\\nd\\u0001\ud83d\ude00\",\"flag\":true,\"count\":-2147483648}",
+                buffer.toString());
+    }
+
+    @Test
+    public void testJsonNullValues() {
+        OutputBuffer buffer = new OutputBuffer();
+        JsonValueSink sink = new JsonValueSink(buffer, true);
+        sink.startObject();
+        sink.startField(new SerializedString("empty"));
+        sink.writeNull();
+        sink.startField(new SerializedString("zero"));
+        sink.writeLong(0);
+        sink.endObject();
+        sink.startObject();
+        sink.endObject();
+
+        Assert.assertEquals("{\"empty\":null,\"zero\":0}{}", buffer.toString());
+    }
+}
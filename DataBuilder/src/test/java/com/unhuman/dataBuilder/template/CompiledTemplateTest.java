@@ -0,0 +1,69 @@
+package com.unhuman.dataBuilder.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unhuman.dataBuilder.GenerationPlan;
+import com.unhuman.dataBuilder.SettingsConfig;
+import com.unhuman.dataBuilder.descriptor.FirstNameDescriptor;
+import com.unhuman.dataBuilder.descriptor.IdDescriptor;
+import com.unhuman.dataBuilder.descriptor.LastNameDescriptor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class CompiledTemplateTest {
+    @Test
+    public void testRepeatBlock() throws Exception {
+        String output = render("<users cost=\"$1 \\\\ $[x\">\n$[#repeat 3]<user first=$[first] last=$[last]/>\n"
+                + "$[/repeat]</users>\n", 5L);
+
+        String[] lines = output.split("\n");
+        Assert.assertEquals(5, lines.length);
+        Assert.assertEquals("<users cost=\"$1 \\\\ $[x\">", lines[0]);
+        for (int i = 1; i <= 3; i++) {
+            Assert.assertTrue(lines[i], lines[i].matches("<user first=\"\\w+\" last=\"\\w+\"/>"));
+        }
+        Assert.assertEquals("</users>", lines[4]);
+        Assert.assertEquals(output, render("<users cost=\"$1 \\\\ $[x\">\n$[#repeat 3]<user first=$[first] "
+                + "last=$[last]/>\n$[/repeat]</users>\n", 5L));
+    }
+
+    @Test
+    public void testIdsUniqueAcrossRecords() throws Exception {
+        // the token is used twice in the repeated records, so each takes two ids
+        String output = render("$[id]\n$[#repeat 3]$[id] $[id] $[first]\n$[/repeat]$[id]\n$[#repeat 2]$[id]\n"
+                + "$[/repeat]", 5L);
+
+        List<String> ids = Pattern.compile("\\d+").matcher(output).results()
+                .map(MatchResult::group).collect(Collectors.toList());
+        Assert.assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10"), ids);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownToken() throws Exception {
+        render("$[unknown]", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnclosedRepeat() throws Exception {
+        render("$[#repeat 2]$[first]", null);
+    }
+
+    private String render(String template, Long seed) throws Exception {
+        SettingsConfig settingsConfig = new SettingsConfig();
+        settingsConfig.addSetting(new FirstNameDescriptor("first"));
+        settingsConfig.addSetting(new LastNameDescriptor("last"));
+        settingsConfig.addSetting(new ObjectMapper().readValue("{\"name\": \"id\", \"idType\": \"INCREMENTING\","
+                + " \"incrementingStartingId\": 1}", IdDescriptor.class));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GenerationPlan plan = GenerationPlan.compile(settingsConfig);
+        CompiledTemplate.compile(template, plan).render(output, plan.bind(settingsConfig), seed);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}